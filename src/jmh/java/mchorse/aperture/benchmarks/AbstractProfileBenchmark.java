@@ -0,0 +1,58 @@
+package mchorse.aperture.benchmarks;
+
+import mchorse.aperture.camera.CameraProfile;
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+
+/**
+ * Base class for camera profile benchmarks
+ *
+ * Every invocation applies the camera profile on the next frame, just
+ * like {@link mchorse.aperture.camera.CameraRunner} does during the
+ * playback, assuming that the game renders 3 frames per tick (60 FPS).
+ */
+public abstract class AbstractProfileBenchmark
+{
+    /**
+     * Amount of frames rendered per tick
+     */
+    public static final int FRAMES_PER_TICK = 3;
+
+    public CameraProfile profile;
+    public Position position = new Position(0, 0, 0, 0, 0);
+
+    private long duration;
+    private long frame;
+
+    /**
+     * Setup the benchmarked camera profile. Fixtures are added directly
+     * to the list of fixtures, because marking profile dirty would post
+     * an event on Forge's event bus.
+     */
+    protected void setup(AbstractFixture... fixtures)
+    {
+        this.profile = new CameraProfile(null);
+
+        for (AbstractFixture fixture : fixtures)
+        {
+            this.profile.getAll().add(fixture);
+        }
+
+        this.duration = this.profile.getDuration();
+        this.frame = 0;
+    }
+
+    /**
+     * Apply camera profile on the next frame
+     */
+    protected Position applyNextFrame()
+    {
+        long tick = this.frame / FRAMES_PER_TICK;
+        float partialTick = (this.frame % FRAMES_PER_TICK) / (float) FRAMES_PER_TICK;
+
+        this.profile.applyProfile(tick, partialTick, this.position);
+        this.frame = (this.frame + 1) % (this.duration * FRAMES_PER_TICK);
+
+        return this.position;
+    }
+}
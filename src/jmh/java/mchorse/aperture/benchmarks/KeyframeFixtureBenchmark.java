@@ -0,0 +1,81 @@
+package mchorse.aperture.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.KeyframeFixture;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.Easing;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.Interpolation;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.Keyframe;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
+
+/**
+ * Keyframe fixture benchmark
+ *
+ * Measures keyframe fixture with every interpolation and easing on all
+ * seven channels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyframeFixtureBenchmark extends AbstractProfileBenchmark
+{
+    @Param({"CONST", "LINEAR", "QUAD", "CUBIC", "HERMITE", "EXP", "BEZIER"})
+    public Interpolation interpolation;
+
+    @Param({"IN", "OUT", "INOUT"})
+    public Easing easing;
+
+    @Param({"10", "1000"})
+    public int keyframes;
+
+    @Setup
+    public void setup()
+    {
+        long duration = this.keyframes * 10;
+        KeyframeFixture fixture = new KeyframeFixture(duration);
+        int c = 0;
+
+        for (KeyframeChannel channel : fixture.channels)
+        {
+            for (int i = 0; i < this.keyframes; i++)
+            {
+                channel.insert(i * 10, (float) Math.sin(i + c) * 10);
+            }
+
+            for (Keyframe frame : channel.getKeyframes())
+            {
+                frame.setInterpolation(this.interpolation);
+                frame.setEasing(this.easing);
+            }
+
+            /* Keyframes are edited through the views, so they need to
+             * be packed back, like it's done upon closing camera editor */
+            channel.pack();
+            c++;
+        }
+
+        this.setup(fixture);
+    }
+
+    @Benchmark
+    public Position applyProfile()
+    {
+        return this.applyNextFrame();
+    }
+}
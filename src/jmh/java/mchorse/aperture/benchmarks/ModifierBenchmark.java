@@ -0,0 +1,82 @@
+package mchorse.aperture.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.IdleFixture;
+import mchorse.aperture.camera.modifiers.ComponentModifier;
+import mchorse.aperture.camera.modifiers.DragModifier;
+import mchorse.aperture.camera.modifiers.MathModifier;
+import mchorse.aperture.camera.modifiers.ShakeModifier;
+
+/**
+ * Modifier benchmark
+ *
+ * Measures chains of shake, drag and math modifiers applied on top of an
+ * idle fixture. Chain is a string in which every character is a
+ * modifier: "s" for shake, "d" for drag and "m" for math modifier.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModifierBenchmark extends AbstractProfileBenchmark
+{
+    @Param({"", "s", "d", "m", "sdm", "ssssdddmmm"})
+    public String chain;
+
+    @Setup
+    public void setup()
+    {
+        IdleFixture fixture = new IdleFixture(1000);
+
+        fixture.position.point.set(10, 4, -10);
+
+        for (char c : this.chain.toCharArray())
+        {
+            ComponentModifier modifier = null;
+
+            if (c == 's')
+            {
+                modifier = new ShakeModifier(5, 0.5F);
+            }
+            else if (c == 'd')
+            {
+                modifier = new DragModifier();
+            }
+            else if (c == 'm')
+            {
+                modifier = new MathModifier("value + sin(t / 10 + pt) * 2");
+            }
+
+            if (modifier != null)
+            {
+                /* Enable all components */
+                modifier.active = 0b1111111;
+                fixture.getModifiers().add(modifier);
+            }
+        }
+
+        this.setup(fixture);
+    }
+
+    @Benchmark
+    public Position applyProfile()
+    {
+        return this.applyNextFrame();
+    }
+}
@@ -0,0 +1,75 @@
+package mchorse.aperture.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.PathFixture;
+import mchorse.aperture.camera.fixtures.PathFixture.DurablePosition;
+
+/**
+ * Path fixture benchmark
+ *
+ * Measures path fixture with every interpolation, with and without
+ * keyframed speed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathFixtureBenchmark extends AbstractProfileBenchmark
+{
+    @Param({"linear", "cubic", "hermite"})
+    public String interpolation;
+
+    @Param({"false", "true"})
+    public boolean useSpeed;
+
+    @Param({"10", "100"})
+    public int points;
+
+    @Param({"200", "2000"})
+    public int duration;
+
+    @Setup
+    public void setup()
+    {
+        /* Constructor with duration reads the config */
+        PathFixture fixture = new PathFixture();
+
+        fixture.setDuration(this.duration);
+        fixture.interpolationPos = PathFixture.interpFromString(this.interpolation);
+        fixture.interpolationAngle = fixture.interpolationPos;
+        fixture.useSpeed = this.useSpeed;
+
+        for (int i = 0; i < this.points; i++)
+        {
+            fixture.addPoint(new DurablePosition(i * 2, (float) Math.sin(i) * 5, i % 3, i * 15, (float) Math.cos(i) * 30));
+        }
+
+        fixture.speed.insert(0, 1);
+        fixture.speed.insert(this.duration / 2, 4);
+        fixture.speed.insert(this.duration, 0.5F);
+
+        this.setup(fixture);
+    }
+
+    @Benchmark
+    public Position applyProfile()
+    {
+        return this.applyNextFrame();
+    }
+}
@@ -0,0 +1,59 @@
+package mchorse.aperture.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.fixtures.IdleFixture;
+
+/**
+ * Camera profile benchmark
+ *
+ * Measures the cost of finding current fixture in camera profiles with
+ * lots of short fixtures.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileBenchmark extends AbstractProfileBenchmark
+{
+    @Param({"10", "100", "1000", "10000"})
+    public int fixtures;
+
+    @Setup
+    public void setup()
+    {
+        AbstractFixture[] fixtures = new AbstractFixture[this.fixtures];
+
+        for (int i = 0; i < fixtures.length; i++)
+        {
+            IdleFixture fixture = new IdleFixture(10 + i % 7);
+
+            fixture.position.point.set(i, i * 0.5F, -i);
+            fixtures[i] = fixture;
+        }
+
+        this.setup(fixtures);
+    }
+
+    @Benchmark
+    public Position applyProfile()
+    {
+        return this.applyNextFrame();
+    }
+}
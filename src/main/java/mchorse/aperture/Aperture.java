@@ -1,14 +1,23 @@
 package mchorse.aperture;
 
+import java.io.File;
+
 import org.apache.logging.log4j.Logger;
 
+import mchorse.aperture.camera.CameraCache;
+import mchorse.aperture.camera.CameraIO;
+import mchorse.aperture.camera.ProfileIndex;
 import mchorse.aperture.commands.CommandAperture;
+import mchorse.aperture.network.ChunkedSender;
+import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.Mod.EventHandler;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 
 /**
  * Main entry point of Aperture
@@ -61,4 +70,20 @@ public class Aperture
     {
         event.registerServerCommand(new CommandAperture());
     }
+
+    @EventHandler
+    public void serverStopping(FMLServerStoppingEvent event)
+    {
+        CameraIO.flush();
+
+        /* World's save folder is still known at this point */
+        ProfileIndex.release(new File(DimensionManager.getCurrentSaveRootDirectory(), "aperture/cameras"));
+    }
+
+    @EventHandler
+    public void serverStopped(FMLServerStoppedEvent event)
+    {
+        CameraCache.clear();
+        ChunkedSender.clear();
+    }
 }
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.HashMap;
 
 import mchorse.aperture.camera.CameraControl;
+import mchorse.aperture.camera.CameraIO;
 import mchorse.aperture.camera.CameraRenderer;
 import mchorse.aperture.camera.CameraRunner;
 import mchorse.aperture.camera.FixtureRegistry;
@@ -84,6 +85,7 @@ public class ClientProxy extends CommonProxy
     /* Files */
     public static File config;
     public static File cameras;
+    public static File cache;
 
     /**
      * An instance of camera editor 
@@ -148,10 +150,14 @@ public class ClientProxy extends CommonProxy
 
         config = new File(event.getModConfigurationDirectory(), "aperture");
         cameras = new File(config, "cameras");
+        cache = new File(config, "cache");
 
         super.preLoad(event);
 
         runner = new CameraRunner();
+
+        /* Finish saving camera profiles when the game gets closed */
+        Runtime.getRuntime().addShutdownHook(new Thread(CameraIO::flush, "Aperture profile I/O flush"));
     }
 
     /**
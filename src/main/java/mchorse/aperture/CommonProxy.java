@@ -22,6 +22,7 @@ import mchorse.aperture.capabilities.camera.Camera;
 import mchorse.aperture.capabilities.camera.CameraStorage;
 import mchorse.aperture.capabilities.camera.ICamera;
 import mchorse.aperture.config.ApertureConfig;
+import mchorse.aperture.network.ChunkedSender;
 import mchorse.aperture.network.Dispatcher;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.capabilities.CapabilityManager;
@@ -90,6 +91,7 @@ public class CommonProxy
     public void load(FMLInitializationEvent event)
     {
         MinecraftForge.EVENT_BUS.register(new CapabilityHandler());
+        MinecraftForge.EVENT_BUS.register(new ChunkedSender());
     }
 
     /**
@@ -0,0 +1,195 @@
+package mchorse.aperture.camera;
+
+import mchorse.aperture.camera.data.Angle;
+import mchorse.aperture.camera.data.Point;
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.modifiers.AbstractModifier;
+import mchorse.mclib.utils.Interpolations;
+
+/**
+ * Baked camera profile
+ *
+ * This class samples camera profile at fixed sub-tick rate into a flat
+ * float array of positions, so the playback would need only to
+ * interpolate between two samples instead of evaluating fixtures and
+ * modifiers every frame.
+ *
+ * Live modifiers (see {@link AbstractModifier#isLive()}) and the
+ * modifiers after them aren't baked, they're applied on top of baked
+ * position during the playback. Live fixtures aren't baked at all.
+ */
+public class BakedProfile
+{
+    /**
+     * Amount of floats per sample (x, y, z, yaw, pitch, roll and fov)
+     */
+    public static final int STRIDE = 7;
+
+    /**
+     * Camera profile which was baked
+     */
+    public final CameraProfile profile;
+
+    /**
+     * Amount of samples per tick
+     */
+    public final int rate;
+
+    /**
+     * Samples of the camera profile
+     */
+    private float[] samples;
+
+    /**
+     * Samples at the end of every fixture. They're used to interpolate
+     * the last sample of a fixture, since next sample belongs to another
+     * fixture
+     */
+    private float[] tails;
+
+    /**
+     * Index of the first live modifier for every fixture, or -1 if whole
+     * fixture is live
+     */
+    private int[] live;
+
+    public BakedProfile(CameraProfile profile, int rate)
+    {
+        this.profile = profile;
+        this.rate = Math.max(rate, 1);
+    }
+
+    /**
+     * Bake the camera profile starting with given position
+     */
+    public void bake(Position initial)
+    {
+        int count = this.profile.getCount();
+        int total = (int) (this.profile.getDuration() * this.rate);
+        Position position = initial.clone();
+
+        this.samples = new float[total * STRIDE];
+        this.tails = new float[count * STRIDE];
+        this.live = new int[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            AbstractFixture fixture = this.profile.get(i);
+
+            this.live[i] = fixture.isLive(this.profile) ? -1 : fixture.getLiveIndex();
+        }
+
+        for (int i = 0; i < total; i++)
+        {
+            this.sample(i / this.rate, (i % this.rate) / (float) this.rate, position);
+            this.store(this.samples, i, position);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            long end = this.profile.getOffset(i + 1);
+
+            if (end > this.profile.getOffset(i))
+            {
+                this.sample(end - 1, 1, position);
+                this.store(this.tails, i, position);
+            }
+        }
+    }
+
+    /**
+     * Apply baked camera profile on given position
+     */
+    public void applyProfile(long progress, float partialTick, Position position)
+    {
+        int index = this.profile.findIndex(progress);
+
+        if (index >= this.live.length)
+        {
+            return;
+        }
+
+        if (this.live[index] == -1)
+        {
+            this.profile.applyProfile(progress, partialTick, position);
+
+            return;
+        }
+
+        int total = this.samples.length / STRIDE;
+
+        if (total == 0)
+        {
+            return;
+        }
+
+        float x = (progress + partialTick) * this.rate;
+        int sample = Math.min((int) x, total - 1);
+        float factor = x - sample;
+
+        /* Last sample of the fixture should be interpolated with the
+         * end of this fixture instead of the next fixture */
+        boolean tail = sample % this.rate == this.rate - 1 && progress + 1 >= this.profile.getOffset(index + 1);
+        float[] next = tail ? this.tails : this.samples;
+        int a = sample * STRIDE;
+        int b = (tail ? index : sample + 1) * STRIDE;
+
+        Point point = position.point;
+        Angle angle = position.angle;
+
+        point.x = Interpolations.lerp(this.samples[a], next[b], factor);
+        point.y = Interpolations.lerp(this.samples[a + 1], next[b + 1], factor);
+        point.z = Interpolations.lerp(this.samples[a + 2], next[b + 2], factor);
+        angle.yaw = Interpolations.lerp(this.samples[a + 3], next[b + 3], factor);
+        angle.pitch = Interpolations.lerp(this.samples[a + 4], next[b + 4], factor);
+        angle.roll = Interpolations.lerp(this.samples[a + 5], next[b + 5], factor);
+        angle.fov = Interpolations.lerp(this.samples[a + 6], next[b + 6], factor);
+
+        AbstractFixture fixture = this.profile.get(index);
+        int from = this.live[index];
+        int to = fixture.getModifiers().size();
+
+        if (from < to)
+        {
+            fixture.applyModifiers(progress, progress - this.profile.getOffset(index), partialTick, this.profile, position, from, to);
+        }
+    }
+
+    /**
+     * Apply fixture and modifiers which can be baked on given position
+     */
+    private void sample(long progress, float partialTick, Position position)
+    {
+        int index = this.profile.findIndex(progress);
+
+        if (index >= this.live.length || this.live[index] == -1)
+        {
+            return;
+        }
+
+        AbstractFixture fixture = this.profile.get(index);
+        long offset = progress - this.profile.getOffset(index);
+
+        if (offset == 0)
+        {
+            fixture.preApplyFixture(offset, position);
+        }
+
+        fixture.applyFixture(offset, partialTick, this.profile, position);
+        fixture.applyModifiers(progress, offset, partialTick, this.profile, position, 0, this.live[index]);
+    }
+
+    private void store(float[] array, int index, Position position)
+    {
+        int i = index * STRIDE;
+
+        array[i] = position.point.x;
+        array[i + 1] = position.point.y;
+        array[i + 2] = position.point.z;
+        array[i + 3] = position.angle.yaw;
+        array[i + 4] = position.angle.pitch;
+        array[i + 5] = position.angle.roll;
+        array[i + 6] = position.angle.fov;
+    }
+}
@@ -3,12 +3,13 @@ package mchorse.aperture.camera;
 import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import mchorse.aperture.ClientProxy;
 import mchorse.aperture.camera.destination.AbstractDestination;
 import mchorse.aperture.camera.destination.ServerDestination;
-import mchorse.aperture.network.Dispatcher;
+import mchorse.aperture.network.ChunkedSender;
 import mchorse.aperture.network.common.PacketCameraState;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.ResourceLocation;
@@ -42,66 +43,75 @@ public class CameraAPI
         }
         else
         {
-            Dispatcher.sendTo(new PacketCameraState(destination.getFilename(), true), player);
+            ChunkedSender.sendAfterTransfer(new PacketCameraState(destination.getFilename(), true), player);
         }
     }
 
     /**
-     * Server side code to start playing current camera profile that player has
+     * Server side code to start playing camera for many players by 
+     * providing a resource location
      */
-    public static void playCurrentProfile(EntityPlayerMP player)
+    public static void playCameraProfile(Collection<EntityPlayerMP> players, ResourceLocation resource)
     {
-        Dispatcher.sendTo(new PacketCameraState(true), player);
+        playCameraProfile(players, AbstractDestination.fromResourceLocation(resource));
     }
 
     /**
-     * Get a list of camera profile names on the client side (from the config) 
+     * Server side code to start playing camera for many players by 
+     * providing an abstract destination. Server camera profile gets 
+     * serialized only once for all players.
      */
-    @SideOnly(Side.CLIENT)
-    public static List<String> getClientProfiles()
+    public static void playCameraProfile(Collection<EntityPlayerMP> players, AbstractDestination destination)
     {
-        List<String> files = new ArrayList<String>();
-        File folder = ClientProxy.getClientCameras();
-        File[] profiles = null;
-
-        if (folder != null)
+        if (destination instanceof ServerDestination)
         {
-            profiles = folder.listFiles(new JSONFileFilter());
+            CameraUtils.sendProfileToPlayers(destination.getFilename(), players, true, false);
         }
-
-        if (profiles != null)
+        else
         {
-            for (File file : profiles)
+            for (EntityPlayerMP player : players)
             {
-                String filename = file.getName();
-
-                filename = filename.substring(0, filename.lastIndexOf(".json"));
-                files.add(filename);
+                ChunkedSender.sendAfterTransfer(new PacketCameraState(destination.getFilename(), true), player);
             }
         }
-
-        return files;
     }
 
     /**
-     * Get a list of camera profile names on the server side (from world save 
-     * aperture/cameras folder).
+     * Server side code to start playing current camera profile that player has. 
+     * If a camera profile is still being sent to the player, the camera 
+     * starts once it's received.
      */
-    public static List<String> getServerProfiles()
+    public static void playCurrentProfile(EntityPlayerMP player)
     {
-        File file = new File(DimensionManager.getCurrentSaveRootDirectory() + "/aperture/cameras");
-        List<String> files = new ArrayList<String>();
+        ChunkedSender.sendAfterTransfer(new PacketCameraState(true), player);
+    }
 
-        file.mkdirs();
+    /**
+     * Get a list of camera profile names on the client side (from the config). 
+     * Names are taken from an in-memory index, which is kept up to date 
+     * by watching the folder (see {@link ProfileIndex}).
+     */
+    @SideOnly(Side.CLIENT)
+    public static List<String> getClientProfiles()
+    {
+        File folder = ClientProxy.getClientCameras();
 
-        for (File profile : file.listFiles(new JSONFileFilter()))
+        if (folder == null)
         {
-            String filename = profile.getName();
-
-            files.add(filename.substring(0, filename.lastIndexOf(".json")));
+            return new ArrayList<String>();
         }
 
-        return files;
+        return ProfileIndex.getProfiles(folder);
+    }
+
+    /**
+     * Get a list of camera profile names on the server side (from world save 
+     * aperture/cameras folder). Names are taken from an in-memory index as 
+     * well, so it doesn't touch the disk.
+     */
+    public static List<String> getServerProfiles()
+    {
+        return ProfileIndex.getProfiles(new File(DimensionManager.getCurrentSaveRootDirectory() + "/aperture/cameras"));
     }
 
     /**
@@ -0,0 +1,210 @@
+package mchorse.aperture.camera;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import mchorse.aperture.network.ChunkedPayload;
+import mchorse.aperture.network.common.PacketCameraProfile;
+import net.minecraft.util.IThreadListener;
+
+/**
+ * Camera profile cache
+ *
+ * Server side cache of parsed camera profiles, so playing the same camera
+ * profile for many players doesn't read and parse the same file over
+ * and over again. Camera profiles are cached by their file path along
+ * with file's modification time, so a profile which was changed on the
+ * disk gets read again. Least recently used profiles get evicted.
+ *
+ * Along with parsed camera profile, its network encoding is cached as
+ * well, so sending it to many players costs only one serialization.
+ *
+ * Cached camera profiles are shared, so they must not be modified. This
+ * class should be accessed only from the server thread.
+ */
+public class CameraCache
+{
+    /**
+     * Maximum amount of cached camera profiles
+     */
+    public static final int MAX_PROFILES = 16;
+
+    /**
+     * Cached camera profiles by their file paths
+     */
+    private static final Map<String, CachedProfile> PROFILES = new LinkedHashMap<String, CachedProfile>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest)
+        {
+            return this.size() > MAX_PROFILES;
+        }
+    };
+
+    /**
+     * Callbacks which are waiting for camera profiles that are being read
+     */
+    private static final Map<String, List<CameraIO.Callback<CachedProfile>>> PENDING = new HashMap<String, List<CameraIO.Callback<CachedProfile>>>();
+
+    /**
+     * Get camera profile from given file. If it isn't cached or it was
+     * modified since, it's read on the I/O thread. Given callback is
+     * always invoked on given thread.
+     */
+    public static void get(File file, IThreadListener thread, CameraIO.Callback<CachedProfile> callback)
+    {
+        String path = file.getAbsolutePath();
+        CachedProfile entry = PROFILES.get(path);
+
+        if (entry != null && entry.modified == file.lastModified())
+        {
+            callback.done(entry, null);
+
+            return;
+        }
+
+        /* Same camera profile is already being read, so just wait for it */
+        List<CameraIO.Callback<CachedProfile>> callbacks = PENDING.get(path);
+
+        if (callbacks != null)
+        {
+            callbacks.add(callback);
+
+            return;
+        }
+
+        List<CameraIO.Callback<CachedProfile>> waiting = new ArrayList<CameraIO.Callback<CachedProfile>>();
+
+        waiting.add(callback);
+        PENDING.put(path, waiting);
+
+        CameraIO.submit(() ->
+        {
+            long modified = file.lastModified();
+
+            return new CachedProfile(CameraFormat.read(file), modified);
+        }, thread, (result, error) ->
+        {
+            /* Cache could've been cleared (i.e. server was restarted) 
+             * while the camera profile was being read, in that case this 
+             * read shouldn't touch the cache anymore */
+            if (PENDING.get(path) == waiting)
+            {
+                PENDING.remove(path);
+
+                if (result != null)
+                {
+                    PROFILES.put(path, result);
+                }
+            }
+
+            for (CameraIO.Callback<CachedProfile> pending : waiting)
+            {
+                pending.done(result, error);
+            }
+        });
+    }
+
+    /**
+     * Put camera profile which was just written to given file into the 
+     * cache, so it doesn't have to be read again (i.e. to apply profile 
+     * deltas on top of it)
+     */
+    public static void put(File file, CameraProfile profile)
+    {
+        PROFILES.put(file.getAbsolutePath(), new CachedProfile(profile, file.lastModified()));
+    }
+
+    /**
+     * Remove camera profile of given file from the cache
+     */
+    public static void invalidate(File file)
+    {
+        PROFILES.remove(file.getAbsolutePath());
+    }
+
+    /**
+     * Remove all camera profiles from the cache, and forget about reads
+     * in progress (their callbacks may never be invoked, if the server
+     * has stopped)
+     */
+    public static void clear()
+    {
+        PROFILES.clear();
+        PENDING.clear();
+    }
+
+    /**
+     * Cached camera profile
+     */
+    public static class CachedProfile
+    {
+        public final CameraProfile profile;
+        public final long modified;
+
+        private ByteBuf payload;
+        private ChunkedPayload chunks;
+        private long[] hashes;
+
+        public CachedProfile(CameraProfile profile, long modified)
+        {
+            this.profile = profile;
+            this.modified = modified;
+        }
+
+        /**
+         * Get camera profile encoded for sending over the network. It's 
+         * encoded only once, when it's requested for the first time.
+         */
+        public ByteBuf getPayload()
+        {
+            if (this.payload == null)
+            {
+                this.payload = PacketCameraProfile.encode(this.profile);
+            }
+
+            return this.payload;
+        }
+
+        /**
+         * Get network payload compressed and split into chunks, for big 
+         * camera profiles. It's compressed only once as well.
+         */
+        public ChunkedPayload getChunks()
+        {
+            if (this.chunks == null)
+            {
+                this.chunks = ChunkedPayload.compress(this.getPayload());
+            }
+
+            return this.chunks;
+        }
+
+        /**
+         * Get content hashes of camera profile's fixtures (see 
+         * {@link CameraProfile#getFixtureHashes()})
+         */
+        public long[] getHashes()
+        {
+            if (this.hashes == null)
+            {
+                this.hashes = this.profile.getFixtureHashes();
+            }
+
+            return this.hashes;
+        }
+
+        /**
+         * Get content hash of the whole camera profile
+         */
+        public long getHash()
+        {
+            return CameraProfile.hash(this.getHashes());
+        }
+    }
+}
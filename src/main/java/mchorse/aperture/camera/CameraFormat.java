@@ -0,0 +1,310 @@
+package mchorse.aperture.camera;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mchorse.aperture.Aperture;
+import mchorse.aperture.camera.modifiers.AbstractModifier;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+
+/**
+ * Camera profile file format
+ *
+ * Camera profiles can be stored either as JSON or in binary format,
+ * which is based on the same encoding that is used to send camera
+ * profiles over the network ({@link CameraProfile#toByteBuf(ByteBuf)}).
+ * Binary files start with a magic header, followed by format version,
+ * flags, and (optionally compressed) body.
+ *
+ * Body contains registered names of fixtures and modifiers mapped to
+ * their IDs at the moment of saving, so binary files can be read even
+ * if registry IDs were changed (i.e. by other mods registering their
+ * fixtures or modifiers).
+ *
+ * Files without magic header are read as JSON, so old camera profiles
+ * still get loaded. JSON is read and written as a stream.
+ */
+public class CameraFormat
+{
+    /**
+     * Magic header of binary camera profile files ("APRT")
+     */
+    public static final int MAGIC = 0x41505254;
+
+    /**
+     * Current version of binary format
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Flag that indicates that the body is compressed with deflate
+     */
+    public static final byte FLAG_COMPRESSED = 0b1;
+
+    /**
+     * Size of the header (magic, version and flags) in bytes
+     */
+    public static final int HEADER_SIZE = 6;
+
+    /**
+     * Read camera profile from given file. Format of the file is
+     * detected by the magic header.
+     */
+    public static CameraProfile read(File file) throws Exception
+    {
+        InputStream stream = new BufferedInputStream(new FileInputStream(file));
+
+        try
+        {
+            byte[] header = new byte[HEADER_SIZE];
+
+            stream.mark(HEADER_SIZE);
+
+            if (IOUtils.read(stream, header) == HEADER_SIZE && isBinary(header))
+            {
+                stream.reset();
+
+                return fromBinary(IOUtils.toByteArray(stream));
+            }
+
+            stream.reset();
+
+            return readJSON(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Read camera profile from JSON stream. Fixtures, modifiers and 
+     * keyframes are bound straight from the stream, without building 
+     * a JSON tree of the whole camera profile.
+     */
+    public static CameraProfile readJSON(Reader reader) throws IOException
+    {
+        JsonReader json = new JsonReader(reader);
+        CameraProfile profile = CameraUtils.cameraJSONBuilder(false).fromJson(json, CameraProfile.class);
+
+        if (profile == null)
+        {
+            throw new IOException("Camera profile is empty!");
+        }
+
+        return profile;
+    }
+
+    /**
+     * Write camera profile as JSON (with 4 space indentation) to given 
+     * stream
+     */
+    public static void writeJSON(Writer writer, CameraProfile profile) throws IOException
+    {
+        JsonWriter json = new JsonWriter(writer);
+
+        /* Set 4 space indentation instead of shitty 2 space indentation */
+        json.setIndent("    ");
+        CameraUtils.cameraJSONBuilder(false).toJson(profile, CameraProfile.class, json);
+        json.flush();
+    }
+
+    /**
+     * Write camera profile to given file in format which is specified
+     * in the config
+     */
+    public static void write(File file, CameraProfile profile) throws IOException
+    {
+        CameraIO.writeAtomically(file, encode(profile));
+        ProfileHeader.fromProfile(profile).writeSafely(file);
+    }
+
+    /**
+     * Encode camera profile in format which is specified in the config
+     */
+    public static byte[] encode(CameraProfile profile) throws IOException
+    {
+        return encode(profile, Aperture.proxy.config.camera_profile_binary, Aperture.proxy.config.camera_profile_compress);
+    }
+
+    /**
+     * Encode camera profile either as binary or JSON
+     */
+    public static byte[] encode(CameraProfile profile, boolean binary, boolean compress) throws IOException
+    {
+        if (binary)
+        {
+            return toBinary(profile, compress);
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+
+        writeJSON(writer, profile);
+        writer.close();
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Whether given bytes start with binary camera profile header
+     */
+    public static boolean isBinary(byte[] bytes)
+    {
+        if (bytes.length < HEADER_SIZE)
+        {
+            return false;
+        }
+
+        int magic = (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff);
+
+        return magic == MAGIC;
+    }
+
+    /**
+     * Encode camera profile into binary format
+     */
+    public static byte[] toBinary(CameraProfile profile, boolean compress) throws IOException
+    {
+        ByteBuf body = Unpooled.buffer();
+
+        body.writeByte(FixtureRegistry.NAME_TO_ID.size());
+
+        for (Map.Entry<String, Byte> entry : FixtureRegistry.NAME_TO_ID.entrySet())
+        {
+            body.writeByte(entry.getValue());
+            ByteBufUtils.writeUTF8String(body, entry.getKey());
+        }
+
+        body.writeByte(ModifierRegistry.NAME_TO_CLASS.size());
+
+        for (Map.Entry<String, Class<? extends AbstractModifier>> entry : ModifierRegistry.NAME_TO_CLASS.entrySet())
+        {
+            body.writeByte(ModifierRegistry.CLASS_TO_ID.get(entry.getValue()));
+            ByteBufUtils.writeUTF8String(body, entry.getKey());
+        }
+
+        profile.toByteBuf(body);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.readableBytes() + HEADER_SIZE);
+
+        output.write(MAGIC >>> 24);
+        output.write(MAGIC >>> 16);
+        output.write(MAGIC >>> 8);
+        output.write(MAGIC);
+        output.write(VERSION);
+        output.write(compress ? FLAG_COMPRESSED : 0);
+
+        if (compress)
+        {
+            DeflaterOutputStream deflater = new DeflaterOutputStream(output);
+
+            body.readBytes(deflater, body.readableBytes());
+            deflater.close();
+        }
+        else
+        {
+            body.readBytes(output, body.readableBytes());
+        }
+
+        body.release();
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Decode camera profile from binary format
+     */
+    public static CameraProfile fromBinary(byte[] bytes) throws IOException
+    {
+        byte version = bytes[4];
+        byte flags = bytes[5];
+
+        if (version > VERSION)
+        {
+            throw new IOException("Camera profile was saved in newer format (version " + version + ")!");
+        }
+
+        ByteBuf body;
+
+        if ((flags & FLAG_COMPRESSED) != 0)
+        {
+            InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE));
+
+            body = Unpooled.wrappedBuffer(IOUtils.toByteArray(inflater));
+            inflater.close();
+        }
+        else
+        {
+            body = Unpooled.wrappedBuffer(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        }
+
+        byte[] fixtures = new byte[256];
+        byte[] modifiers = new byte[256];
+
+        for (int i = 0, c = body.readUnsignedByte(); i < c; i++)
+        {
+            int id = body.readUnsignedByte();
+            String name = ByteBufUtils.readUTF8String(body);
+            Byte type = FixtureRegistry.NAME_TO_ID.get(name);
+
+            if (type == null)
+            {
+                throw new IOException("Camera fixture '" + name + "' isn't registered!");
+            }
+
+            fixtures[id] = type;
+        }
+
+        for (int i = 0, c = body.readUnsignedByte(); i < c; i++)
+        {
+            int id = body.readUnsignedByte();
+            String name = ByteBufUtils.readUTF8String(body);
+            Class<? extends AbstractModifier> clazz = ModifierRegistry.NAME_TO_CLASS.get(name);
+
+            if (clazz == null)
+            {
+                throw new IOException("Camera modifier '" + name + "' isn't registered!");
+            }
+
+            modifiers[id] = ModifierRegistry.CLASS_TO_ID.get(clazz);
+        }
+
+        CameraProfile profile = new CameraProfile(null);
+
+        FixtureRegistry.setRemap(fixtures);
+        ModifierRegistry.setRemap(modifiers);
+
+        try
+        {
+            profile.fromByteBuf(body);
+        }
+        finally
+        {
+            FixtureRegistry.setRemap(null);
+            ModifierRegistry.setRemap(null);
+        }
+
+        return profile;
+    }
+}
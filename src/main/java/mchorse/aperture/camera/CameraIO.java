@@ -0,0 +1,171 @@
+package mchorse.aperture.camera;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+
+import mchorse.aperture.Aperture;
+import net.minecraft.util.IThreadListener;
+
+/**
+ * Camera profile I/O
+ *
+ * Reads and writes camera profile files on a dedicated thread, so big
+ * camera profiles don't block server ticks or client rendering. Tasks
+ * are executed in the order they were submitted, and callbacks get
+ * scheduled back on given main thread (i.e. server or Minecraft client).
+ *
+ * Files are written to a temporary file first, which then replaces the
+ * target file, so a crash during saving doesn't corrupt the profile.
+ */
+public class CameraIO
+{
+    /**
+     * Single I/O thread, so reads and writes of the same file can't
+     * overtake each other
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor((runnable) ->
+    {
+        Thread thread = new Thread(runnable, "Aperture profile I/O");
+
+        thread.setDaemon(true);
+
+        return thread;
+    });
+
+    /**
+     * How long (in seconds) {@link #flush()} waits for queued tasks
+     */
+    public static final int FLUSH_TIMEOUT = 30;
+
+    /**
+     * Wait until all submitted tasks are done, so camera profiles which
+     * are being saved aren't lost when the server stops or the game gets
+     * closed. Callbacks of these tasks may not be invoked anymore.
+     */
+    public static void flush()
+    {
+        try
+        {
+            EXECUTOR.submit(() -> {}).get(FLUSH_TIMEOUT, TimeUnit.SECONDS);
+        }
+        catch (Exception e)
+        {
+            Aperture.LOGGER.error("Couldn't finish writing camera profiles!", e);
+        }
+    }
+
+    /**
+     * Read camera profile from given file
+     */
+    public static Future<CameraProfile> read(File file, IThreadListener thread, Callback<CameraProfile> callback)
+    {
+        return submit(() -> CameraFormat.read(file), thread, callback);
+    }
+
+    /**
+     * Write camera profile to given file. Camera profile gets encoded on
+     * the I/O thread, so it shouldn't be modified after this call.
+     */
+    public static Future<File> write(File file, CameraProfile profile, IThreadListener thread, Callback<File> callback)
+    {
+        return submit(() ->
+        {
+            writeAtomically(file, CameraFormat.encode(profile));
+            ProfileHeader.fromProfile(profile).writeSafely(file);
+
+            return file;
+        }, thread, callback);
+    }
+
+    /**
+     * Write already encoded camera profile to given file along with its 
+     * header (see {@link ProfileHeader})
+     */
+    public static Future<File> write(File file, byte[] data, ProfileHeader header, IThreadListener thread, Callback<File> callback)
+    {
+        return submit(() ->
+        {
+            writeAtomically(file, data);
+            header.writeSafely(file);
+
+            return file;
+        }, thread, callback);
+    }
+
+    /**
+     * Submit an I/O task, and schedule its callback on given thread
+     */
+    public static <T> Future<T> submit(Callable<T> task, IThreadListener thread, Callback<T> callback)
+    {
+        return EXECUTOR.submit(() ->
+        {
+            T result = null;
+            Exception error = null;
+
+            try
+            {
+                result = task.call();
+            }
+            catch (Exception e)
+            {
+                error = e;
+            }
+
+            if (callback != null)
+            {
+                final T r = result;
+                final Exception e = error;
+
+                thread.addScheduledTask(() -> callback.done(r, e));
+            }
+
+            if (error != null)
+            {
+                throw error;
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Write data to a temporary file, and then move it in place of given
+     * file
+     */
+    public static void writeAtomically(File file, byte[] data) throws IOException
+    {
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        FileUtils.writeByteArrayToFile(temporary, data);
+
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        ProfileIndex.added(file);
+    }
+
+    /**
+     * I/O callback which is invoked on the main thread. Either result
+     * or error is null.
+     */
+    public static interface Callback<T>
+    {
+        public void done(T result, Exception error);
+    }
+}
@@ -8,11 +8,13 @@ import java.util.regex.Pattern;
 import com.google.gson.annotations.Expose;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import mchorse.aperture.camera.data.Position;
 import mchorse.aperture.camera.destination.AbstractDestination;
 import mchorse.aperture.camera.fixtures.AbstractFixture;
 import mchorse.aperture.events.CameraProfileChangedEvent;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.MathHelper;
 import net.minecraftforge.common.MinecraftForge;
 
 /**
@@ -29,6 +31,12 @@ public class CameraProfile
      */
     public static final Pattern NUMBERED_SUFFIX = Pattern.compile("_(\\d+)$");
 
+    /**
+     * FNV-1a constants which are used for fixture hashes
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     /**
      * List of profile's camera fixtures
      */
@@ -45,6 +53,27 @@ public class CameraProfile
      */
     public boolean dirty;
 
+    /**
+     * Cached start ticks of the fixtures. Element at index {@code i} is the 
+     * tick at which fixture {@code i} starts, and the last element is the 
+     * duration of the whole camera profile. It's {@code null} when it 
+     * needs to be rebuilt.
+     */
+    private long[] offsets;
+
+    /**
+     * Baked version of this camera profile which is used for playback. 
+     * It's reset when this camera profile gets dirty.
+     */
+    private BakedProfile baked;
+
+    /**
+     * Content hashes of the fixtures as they were last synchronized with 
+     * the server (see {@link #markSynced()}). It's used to send only 
+     * changed fixtures when saving on the server.
+     */
+    private long[] synced;
+
     public CameraProfile(AbstractDestination destination)
     {
         this.destination = destination;
@@ -66,14 +95,9 @@ public class CameraProfile
      */
     public long getDuration()
     {
-        long duration = 0;
-
-        for (AbstractFixture fixture : this.fixtures)
-        {
-            duration += fixture.getDuration();
-        }
+        long[] offsets = this.getOffsets();
 
-        return duration;
+        return offsets[offsets.length - 1];
     }
 
     public void dirty()
@@ -87,82 +111,146 @@ public class CameraProfile
     public void setDirty(boolean dirty)
     {
         this.dirty = dirty;
+        this.invalidateOffsets();
+        this.baked = null;
+
+        for (AbstractFixture fixture : this.fixtures)
+        {
+            fixture.invalidate();
+        }
 
         MinecraftForge.EVENT_BUS.post(new CameraProfileChangedEvent(this));
     }
 
     /**
-     * Calculate offset (in ticks) of the given target (not target based)
-     * fixture. Input target fixture must be out of current camera profile.
+     * Invalidate cached fixture offsets (and baked profile). This method 
+     * should be invoked when the duration of any fixture was changed 
+     * without marking this camera profile dirty.
      */
-    public long calculateOffset(AbstractFixture target)
+    public void invalidateOffsets()
+    {
+        this.offsets = null;
+        this.baked = null;
+    }
+
+    /**
+     * Get baked version of this camera profile with given amount of 
+     * samples per tick. It gets baked starting from given position, if 
+     * it wasn't baked yet or this camera profile was changed since.
+     */
+    public BakedProfile bake(int rate, Position position)
     {
-        long tick = 0;
+        if (this.baked == null || this.baked.rate != rate)
+        {
+            this.baked = new BakedProfile(this, rate);
+            this.baked.bake(position);
+        }
 
-        for (AbstractFixture fixture : this.fixtures)
+        return this.baked;
+    }
+
+    /**
+     * Get start ticks of all fixtures (see {@link #offsets}), rebuilding 
+     * them if needed
+     */
+    protected long[] getOffsets()
+    {
+        if (this.offsets == null || this.offsets.length != this.fixtures.size() + 1)
         {
-            if (fixture == target)
+            long[] offsets = new long[this.fixtures.size() + 1];
+            long tick = 0;
+
+            for (int i = 0, c = this.fixtures.size(); i < c; i++)
             {
-                break;
+                offsets[i] = tick;
+                tick += this.fixtures.get(i).getDuration();
             }
 
-            tick += fixture.getDuration();
+            offsets[offsets.length - 1] = tick;
+            this.offsets = offsets;
         }
 
-        return tick;
+        return this.offsets;
     }
 
     /**
-     * Calculate offset of a fixture located at given tick optionally
+     * Get the tick at which fixture at given index starts. Index equal to 
+     * the amount of fixtures returns the duration of this profile.
      */
-    public long calculateOffset(long tick, boolean next)
+    public long getOffset(int index)
     {
-        long sum = 0;
+        long[] offsets = this.getOffsets();
 
-        for (AbstractFixture fixture : this.fixtures)
+        return offsets[MathHelper.clamp_int(index, 0, offsets.length - 1)];
+    }
+
+    /**
+     * Find the index of a fixture which runs during given tick. If the 
+     * tick is beyond the duration of this profile, the amount of fixtures 
+     * will be returned.
+     */
+    public int findIndex(long tick)
+    {
+        long[] offsets = this.getOffsets();
+
+        /* Binary search of first fixture which ends after given tick */
+        int low = 1;
+        int high = offsets.length - 1;
+
+        while (low <= high)
         {
-            long duration = fixture.getDuration();
-            sum += duration;
+            int mid = (low + high) >>> 1;
 
-            if (sum > tick)
+            if (offsets[mid] > tick)
             {
-                if (!next)
-                {
-                    sum -= duration;
-                }
-
-                break;
+                high = mid - 1;
+            }
+            else
+            {
+                low = mid + 1;
             }
         }
 
-        return sum;
+        return low - 1;
     }
 
     /**
-     * Get fixture which runs during given tick (approximately)
+     * Calculate offset (in ticks) of the given target (not target based)
+     * fixture. Input target fixture must be out of current camera profile.
      */
-    public AbstractFixture atTick(long tick)
+    public long calculateOffset(AbstractFixture target)
     {
-        if (tick >= this.getDuration() || tick < 0)
+        int index = this.fixtures.indexOf(target);
+
+        return this.getOffset(index == -1 ? this.fixtures.size() : index);
+    }
+
+    /**
+     * Calculate offset of a fixture located at given tick optionally
+     */
+    public long calculateOffset(long tick, boolean next)
+    {
+        int index = this.findIndex(tick);
+
+        if (index >= this.fixtures.size())
         {
-            return null;
+            return this.getDuration();
         }
 
-        long pos = 0;
-        AbstractFixture out = null;
+        return this.getOffset(next ? index + 1 : index);
+    }
 
-        for (AbstractFixture fixture : this.fixtures)
+    /**
+     * Get fixture which runs during given tick (approximately)
+     */
+    public AbstractFixture atTick(long tick)
+    {
+        if (tick >= this.getDuration() || tick < 0)
         {
-            if (tick < pos)
-            {
-                break;
-            }
-
-            pos += fixture.getDuration();
-            out = fixture;
+            return null;
         }
 
-        return out;
+        return this.get(this.findIndex(tick));
     }
 
     /**
@@ -263,18 +351,7 @@ public class CameraProfile
      */
     public void applyProfile(long progress, float partialTick, Position position)
     {
-        int index = 0;
-        long originalProgress = progress;
-
-        for (AbstractFixture fixture : this.fixtures)
-        {
-            long duration = fixture.getDuration();
-
-            if (progress < duration) break;
-
-            progress -= duration;
-            index += 1;
-        }
+        int index = this.findIndex(progress);
 
         if (index >= this.fixtures.size())
         {
@@ -282,6 +359,9 @@ public class CameraProfile
         }
 
         AbstractFixture fixture = this.fixtures.get(index);
+        long originalProgress = progress;
+
+        progress -= this.getOffset(index);
 
         if (progress == 0)
         {
@@ -306,6 +386,8 @@ public class CameraProfile
                 this.fixtures.add(fixture);
             }
         }
+
+        this.invalidateOffsets();
     }
 
     /**
@@ -321,6 +403,75 @@ public class CameraProfile
         }
     }
 
+    /**
+     * Calculate content hashes of all fixtures. Hash of a fixture is 
+     * based on its network encoding, so it's the same on both sides.
+     */
+    public long[] getFixtureHashes()
+    {
+        long[] hashes = new long[this.fixtures.size()];
+        ByteBuf buffer = Unpooled.buffer();
+
+        for (int i = 0; i < hashes.length; i++)
+        {
+            buffer.clear();
+            FixtureRegistry.toByteBuf(this.fixtures.get(i), buffer);
+
+            long hash = FNV_OFFSET;
+
+            for (int j = buffer.readerIndex(), c = buffer.writerIndex(); j < c; j++)
+            {
+                hash = (hash ^ (buffer.getByte(j) & 0xff)) * FNV_PRIME;
+            }
+
+            hashes[i] = hash;
+        }
+
+        buffer.release();
+
+        return hashes;
+    }
+
+    /**
+     * Combine fixture hashes into a single hash of the whole profile
+     */
+    public static long hash(long[] hashes)
+    {
+        long hash = FNV_OFFSET;
+
+        for (long value : hashes)
+        {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+
+        return hash ^ hashes.length;
+    }
+
+    /**
+     * Get fixture hashes at the moment of last synchronization with 
+     * the server, or {@code null} if this profile wasn't synchronized
+     */
+    public long[] getSynced()
+    {
+        return this.synced;
+    }
+
+    /**
+     * Remember current state of fixtures as the one which server has
+     */
+    public void markSynced()
+    {
+        this.markSynced(this.getFixtureHashes());
+    }
+
+    /**
+     * Remember given fixture hashes as the state which server has
+     */
+    public void markSynced(long[] hashes)
+    {
+        this.synced = hashes;
+    }
+
     /**
      * Save camera profile based on destination 
      */
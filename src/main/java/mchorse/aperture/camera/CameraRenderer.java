@@ -1,25 +1,26 @@
 package mchorse.aperture.camera;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.lwjgl.opengl.GL11;
 
 import mchorse.aperture.Aperture;
 import mchorse.aperture.ClientProxy;
+import mchorse.aperture.camera.PathPreview.FixturePreview;
 import mchorse.aperture.camera.data.Position;
 import mchorse.aperture.camera.fixtures.AbstractFixture;
-import mchorse.aperture.camera.fixtures.CircularFixture;
-import mchorse.aperture.camera.fixtures.PathFixture;
-import mchorse.aperture.camera.fixtures.PathFixture.DurablePosition;
 import mchorse.aperture.camera.smooth.Filter;
 import mchorse.aperture.camera.smooth.SmoothCamera;
 import mchorse.aperture.client.KeyboardHandler;
 import mchorse.aperture.client.gui.GuiCameraEditor;
+import mchorse.aperture.events.CameraProfileChangedEvent;
 import mchorse.aperture.utils.Color;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.culling.Frustum;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ResourceLocation;
@@ -55,6 +56,30 @@ public class CameraRenderer
     protected double playerY;
     protected double playerZ;
 
+    /* Positions which are reused to render fixtures */
+    private Position prev = new Position(0, 0, 0, 0, 0);
+    private Position next = new Position(0, 0, 0, 0, 0);
+
+    /**
+     * Cached geometry of current camera profile's preview
+     */
+    private PathPreview preview = new PathPreview();
+
+    /* Culling and orientation of cards, set up every frame */
+    private Frustum frustum;
+    private int distance;
+    private float yaw;
+    private float pitch;
+    private float rightX;
+    private float rightZ;
+    private float upX;
+    private float upY;
+    private float upZ;
+
+    /* Labels which are reused to render cards and path points */
+    private List<Label> labels = new ArrayList<Label>();
+    private int labelCount;
+
     /**
      * Toggle path rendering
      */
@@ -68,6 +93,15 @@ public class CameraRenderer
         Aperture.proxy.config.reload();
     }
 
+    /**
+     * Delete cached geometry of camera profile's preview (i.e. when 
+     * client disconnects). Should be called on the main thread.
+     */
+    public void deletePreview()
+    {
+        this.preview.delete();
+    }
+
     /**
      * Orient the camera
      *
@@ -203,12 +237,15 @@ public class CameraRenderer
 
         boolean badProfile = profile == null || profile.getCount() < 1;
 
-        if (!Aperture.proxy.config.camera_profile_render) return;
-        if (runner.isRunning()) return;
-        if (badProfile) return;
+        if (!Aperture.proxy.config.camera_profile_render || badProfile)
+        {
+            /* Don't keep vertex buffers of preview which isn't rendered */
+            this.preview.delete();
+
+            return;
+        }
 
-        Position prev = new Position(0, 0, 0, 0, 0);
-        Position next = new Position(0, 0, 0, 0, 0);
+        if (runner.isRunning()) return;
 
         EntityPlayer player = runner.outside.active ? runner.outside.camera : this.mc.thePlayer;
         float ticks = event.getPartialTicks();
@@ -217,292 +254,288 @@ public class CameraRenderer
         this.playerY = player.prevPosY + (player.posY - player.prevPosY) * ticks;
         this.playerZ = player.prevPosZ + (player.posZ - player.prevPosZ) * ticks;
 
+        List<FixturePreview> previews = this.preview.update(profile, Aperture.proxy.config.camera_profile_render_samples);
+
+        this.setupCulling();
+
         GlStateManager.pushAttrib();
-        GlStateManager.enableTexture2D();
         GlStateManager.enableBlend();
+        this.drawPaths(previews);
+        GlStateManager.enableTexture2D();
 
-        int i = 0;
+        VertexBuffer vb = Tessellator.getInstance().getBuffer();
+
+        this.mc.renderEngine.bindTexture(TEXTURE);
+        this.labelCount = 0;
+        vb.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
 
-        for (AbstractFixture fixture : profile.getAll())
+        for (int i = 0, c = previews.size(); i < c; i++)
         {
-            fixture.applyFixture(0, 0.0F, profile, prev);
-            fixture.applyFixture(fixture.getDuration(), 0.0F, profile, next);
+            FixturePreview preview = previews.get(i);
+            Position prev = preview.start;
+            Position next = preview.end;
 
-            long duration = fixture.getDuration();
+            /* Null fixtures depend on their neighbors, so they aren't cached */
+            if (preview.live)
+            {
+                AbstractFixture fixture = profile.get(i);
+
+                prev = this.prev;
+                next = this.next;
+                fixture.applyFixture(0, 0.0F, profile, prev);
+                fixture.applyFixture(fixture.getDuration(), 0.0F, profile, next);
+            }
 
             float distX = Math.abs(next.point.x - prev.point.x);
             float distY = Math.abs(next.point.y - prev.point.y);
             float distZ = Math.abs(next.point.z - prev.point.z);
 
-            Color color = FixtureRegistry.CLIENT.get(fixture.getClass()).color;
+            if (distX + distY + distZ >= 0.5) this.drawCard(vb, preview.color, i, preview.duration, next);
 
-            if (distX + distY + distZ >= 0.5) this.drawCard(color, i, duration, next);
+            this.drawCard(vb, preview.color, i, preview.duration, prev);
 
-            this.drawCard(color, i++, duration, prev);
-            this.drawFixture(0.0F, color, fixture, prev, next);
+            for (int j = 0, d = preview.points.size(); j < d; j++)
+            {
+                this.drawPathPoint(vb, preview.color, preview.points.get(j), j + 1);
+            }
         }
 
+        Tessellator.getInstance().draw();
+        this.drawLabels();
+
         GlStateManager.disableBlend();
         GlStateManager.popAttrib();
         GL11.glLineWidth(2);
     }
 
     /**
-     * Draw a fixture's fixture
+     * Mark cached preview as changed, so changed fixtures get sampled
+     * again
      */
-    private void drawFixture(float partialTicks, Color color, AbstractFixture fixture, Position prev, Position next)
+    @SubscribeEvent
+    public void onCameraProfileChanged(CameraProfileChangedEvent event)
     {
-        if (fixture instanceof PathFixture)
-        {
-            this.drawPathFixture(color, fixture, prev, next);
-        }
-        else if (fixture instanceof CircularFixture)
-        {
-            this.drawCircularFixture(partialTicks, color, fixture, prev, next);
-        }
+        this.preview.markDirty(event.profile);
     }
 
     /**
-     * Draw the passed path fixture
+     * Draw cached paths of all fixtures, one draw call per fixture. Far
+     * away paths are drawn with less detail.
      */
-    private void drawPathFixture(Color color, AbstractFixture fixture, Position prev, Position next)
+    private void drawPaths(List<FixturePreview> previews)
     {
-        CameraProfile profile = ClientProxy.control.currentProfile;
-        PathFixture path = (PathFixture) fixture;
-        List<DurablePosition> points = path.getPoints();
-        long duration = fixture.getDuration();
+        int lod = Aperture.proxy.config.camera_profile_render_lod;
 
-        final int p = 15;
+        GL11.glLineWidth(4);
+        GlStateManager.disableTexture2D();
 
-        for (int i = 0, size = points.size() - 1; i < size; i++)
+        for (FixturePreview preview : previews)
         {
-            for (int j = 0; j < p; j++)
+            if (!preview.hasPath() || !this.isVisible(preview.minX, preview.minY, preview.minZ, preview.maxX, preview.maxY, preview.maxZ))
             {
-                path.applyFixture((long) ((float) (j + i * p) / (float) (size * p) * duration), 0, profile, prev);
-                path.applyFixture((long) ((float) (j + i * p + 1) / (float) (size * p) * duration), 0, profile, next);
-
-                this.drawLine(color, this.playerX, this.playerY, this.playerZ, prev, next);
+                continue;
             }
 
-            if (i != 0)
-            {
-                path.applyFixture(path.getTickForPoint(i), 0, profile, prev);
+            Color color = preview.color;
+            Position origin = preview.start;
 
-                this.drawPathPoint(color, prev, i);
-            }
+            GlStateManager.pushMatrix();
+            GlStateManager.translate(origin.point.x - this.playerX, origin.point.y - this.playerY + this.mc.thePlayer.eyeHeight, origin.point.z - this.playerZ);
+            GlStateManager.color(color.red, color.green, color.blue, 0.5F);
+            preview.drawPath(lod > 0 && preview.getDistance(this.playerX, this.playerY, this.playerZ) > lod);
+            GlStateManager.popMatrix();
         }
+
+        GlStateManager.color(1, 1, 1, 1);
     }
 
     /**
-     * Draw the path point
-     *
-     * This method is responsible for drawing a square with a label which shows
-     * the index of that point. This is very useful for path point management.
+     * Set up culling of preview elements by view frustum and maximum
+     * preview distance, and billboard orientation of cards
      */
-    private void drawPathPoint(Color color, Position position, int index)
+    private void setupCulling()
     {
-        GlStateManager.pushMatrix();
-        GlStateManager.pushAttrib();
-        GlStateManager.enableBlend();
-        GlStateManager.color(color.red, color.green, color.blue, 1.0F);
-
-        this.mc.renderEngine.bindTexture(TEXTURE);
-
-        double x = position.point.x - this.playerX;
-        double y = position.point.y - this.playerY;
-        double z = position.point.z - this.playerZ;
+        float yaw;
+        float pitch;
 
-        GL11.glNormal3f(0, 1, 0);
-        GlStateManager.translate(x, y + this.mc.thePlayer.eyeHeight, z);
-
-        if (Minecraft.getMinecraft().currentScreen instanceof GuiCameraEditor)
+        if (this.mc.currentScreen instanceof GuiCameraEditor)
         {
-            Position pos = ClientProxy.getCameraEditor().position;
+            Position position = ClientProxy.getCameraEditor().position;
 
-            GlStateManager.rotate(-pos.angle.yaw, 0, 1, 0);
-            GlStateManager.rotate(pos.angle.pitch, 1, 0, 0);
+            yaw = position.angle.yaw;
+            pitch = position.angle.pitch;
         }
         else
         {
-            GlStateManager.rotate(-this.mc.getRenderManager().playerViewY, 0, 1, 0);
-            GlStateManager.rotate(this.mc.getRenderManager().playerViewX, 1, 0, 0);
+            yaw = this.mc.getRenderManager().playerViewY;
+            pitch = this.mc.getRenderManager().playerViewX;
         }
 
-        float factor = 0.1F;
-        float minX = -factor;
-        float minY = -factor;
-        float maxX = factor;
-        float maxY = factor;
-
-        int tw = 34;
-
-        int tx = 32;
-        int tx2 = 34;
-
-        float texX = (float) tx / (float) tw;
-        float texY = 0;
-        float texRX = (float) tx2 / (float) tw;
-        float texRY = 2.0F / 16.0F;
-
-        VertexBuffer vb = Tessellator.getInstance().getBuffer();
-
-        vb.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
-        vb.pos(minX, minY, 0).tex(texRX, texRY).endVertex();
-        vb.pos(minX, maxY, 0).tex(texRX, texY).endVertex();
-        vb.pos(maxX, maxY, 0).tex(texX, texY).endVertex();
-        vb.pos(maxX, minY, 0).tex(texX, texRY).endVertex();
-
-        Tessellator.getInstance().draw();
-        GlStateManager.disableBlend();
-
-        String indexString = String.valueOf(index);
-        int indexWidth = this.mc.fontRendererObj.getStringWidth(indexString) / 2;
-
-        GlStateManager.rotate(180, 0, 0, 1);
-        GlStateManager.scale(0.03f, 0.03f, 0.03f);
-        GlStateManager.translate(0, -3.5, -0.1);
-        GlStateManager.translate(0, -12, 0);
-
-        this.mc.fontRendererObj.drawString(indexString, -indexWidth, 0, -1);
-
-        GlStateManager.popAttrib();
-        GlStateManager.popMatrix();
-        GlStateManager.color(1, 1, 1, 1);
+        /* Same as rotating by -yaw around Y axis after rotating by pitch 
+         * around X axis */
+        float yawCos = MathHelper.cos(-yaw * 0.017453292F);
+        float yawSin = MathHelper.sin(-yaw * 0.017453292F);
+        float pitchCos = MathHelper.cos(pitch * 0.017453292F);
+        float pitchSin = MathHelper.sin(pitch * 0.017453292F);
+
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.rightX = yawCos;
+        this.rightZ = -yawSin;
+        this.upX = pitchSin * yawSin;
+        this.upY = pitchCos;
+        this.upZ = pitchSin * yawCos;
+
+        this.distance = Aperture.proxy.config.camera_profile_render_distance;
+        this.frustum = new Frustum();
+        this.frustum.setPosition(this.playerX, this.playerY - this.mc.thePlayer.eyeHeight, this.playerZ);
     }
 
     /**
-     * Draw the passed circular fixture
+     * Whether given box (in camera profile's coordinates) is within view
+     * frustum and maximum preview distance
      */
-    private void drawCircularFixture(float partialTicks, Color color, AbstractFixture fixture, Position prev, Position next)
+    private boolean isVisible(double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
     {
-        CameraProfile profile = ClientProxy.control.currentProfile;
-        float circles = Math.min(((CircularFixture) fixture).circles, 360);
-        long duration = fixture.getDuration();
-
-        for (int i = 0; i < circles; i += 5)
+        if (this.distance > 0)
         {
-            float a = i / circles * duration;
-            float b = (i + 3) / circles * duration;
+            double dx = Math.max(0, Math.max(minX - this.playerX, this.playerX - maxX));
+            double dy = Math.max(0, Math.max(minY - this.playerY, this.playerY - maxY));
+            double dz = Math.max(0, Math.max(minZ - this.playerZ, this.playerZ - maxZ));
 
-            fixture.applyFixture((long) a, a - (int) a, profile, prev);
-            fixture.applyFixture((long) b, b - (int) b, profile, next);
-
-            this.drawLine(color, this.playerX, this.playerY, this.playerZ, prev, next);
+            if (dx * dx + dy * dy + dz * dz > this.distance * this.distance)
+            {
+                return false;
+            }
         }
+
+        return this.frustum.isBoxInFrustum(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
     /**
-     * Draw the card of the fixture with the information about this fixture,
-     * like duration and stuff.
+     * Add a billboard quad facing the camera to the batch of quads
      */
-    private void drawCard(Color color, int index, long duration, Position pos)
+    private void addQuad(VertexBuffer vb, Position pos, float size, float texX, float texY, float texRX, float texRY, Color color, float alpha)
     {
-        GlStateManager.pushMatrix();
-        GlStateManager.pushAttrib();
-        GlStateManager.enableBlend();
-        GlStateManager.color(color.red, color.green, color.blue, 0.8F);
-
-        this.mc.renderEngine.bindTexture(TEXTURE);
-
         double x = pos.point.x - this.playerX;
-        double y = pos.point.y - this.playerY;
+        double y = pos.point.y - this.playerY + this.mc.thePlayer.eyeHeight;
         double z = pos.point.z - this.playerZ;
 
-        GL11.glNormal3f(0, 1, 0);
-        GlStateManager.translate(x, y + this.mc.thePlayer.eyeHeight, z);
+        double rx = this.rightX * size;
+        double rz = this.rightZ * size;
+        double ux = this.upX * size;
+        double uy = this.upY * size;
+        double uz = this.upZ * size;
 
-        if (Minecraft.getMinecraft().currentScreen instanceof GuiCameraEditor)
-        {
-            Position position = ClientProxy.getCameraEditor().position;
+        vb.pos(x - rx - ux, y - uy, z - rz - uz).tex(texRX, texRY).color(color.red, color.green, color.blue, alpha).endVertex();
+        vb.pos(x - rx + ux, y + uy, z - rz + uz).tex(texRX, texY).color(color.red, color.green, color.blue, alpha).endVertex();
+        vb.pos(x + rx + ux, y + uy, z + rz + uz).tex(texX, texY).color(color.red, color.green, color.blue, alpha).endVertex();
+        vb.pos(x + rx - ux, y - uy, z + rz - uz).tex(texX, texRY).color(color.red, color.green, color.blue, alpha).endVertex();
+    }
 
-            GlStateManager.rotate(-position.angle.yaw, 0, 1, 0);
-            GlStateManager.rotate(position.angle.pitch, 1, 0, 0);
-        }
-        else
+    /**
+     * Add a label to be rendered after all quads
+     */
+    private void addLabel(Position pos, String text, float scale, float offset)
+    {
+        if (this.labelCount >= this.labels.size())
         {
-            GlStateManager.rotate(-this.mc.getRenderManager().playerViewY, 0, 1, 0);
-            GlStateManager.rotate(this.mc.getRenderManager().playerViewX, 1, 0, 0);
+            this.labels.add(new Label());
         }
 
-        float factor = 0.5F;
-
-        float minX = -factor;
-        float minY = -factor;
-        float maxX = factor;
-        float maxY = factor;
-
-        int tw = 34;
-        int i = 0;
-
-        int tx = i * 16;
-        int tx2 = tx + 16;
+        Label label = this.labels.get(this.labelCount++);
 
-        float texX = (float) tx / (float) tw;
-        float texY = 0;
-        float texRX = (float) tx2 / (float) tw;
-        float texRY = 1;
-
-        VertexBuffer vb = Tessellator.getInstance().getBuffer();
-
-        vb.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
-        vb.pos(minX, minY, 0).tex(texRX, texRY).endVertex();
-        vb.pos(minX, maxY, 0).tex(texRX, texY).endVertex();
-        vb.pos(maxX, maxY, 0).tex(texX, texY).endVertex();
-        vb.pos(maxX, minY, 0).tex(texX, texRY).endVertex();
-
-        Tessellator.getInstance().draw();
-        GlStateManager.disableBlend();
+        label.x = pos.point.x - this.playerX;
+        label.y = pos.point.y - this.playerY + this.mc.thePlayer.eyeHeight;
+        label.z = pos.point.z - this.playerZ;
+        label.text = text;
+        label.scale = scale;
+        label.offset = offset;
+    }
 
-        String indexString = String.valueOf(index);
-        String durationString = duration + "t";
-        int indexWidth = this.mc.fontRendererObj.getStringWidth(indexString) / 2;
-        int durationWidth = this.mc.fontRendererObj.getStringWidth(durationString) / 2;
+    /**
+     * Draw all collected labels in one pass, so font texture is bound 
+     * only once
+     */
+    private void drawLabels()
+    {
+        GlStateManager.color(1, 1, 1, 1);
 
-        GlStateManager.rotate(180, 0, 0, 1);
-        GlStateManager.scale(0.05f, 0.05f, 0.05f);
-        GlStateManager.translate(0, -3.5, -0.1);
+        for (int i = 0; i < this.labelCount; i++)
+        {
+            Label label = this.labels.get(i);
+            int width = this.mc.fontRendererObj.getStringWidth(label.text) / 2;
 
-        this.mc.fontRendererObj.drawString(indexString, -indexWidth, 0, -1);
+            GlStateManager.pushMatrix();
+            GlStateManager.translate(label.x, label.y, label.z);
+            GlStateManager.rotate(-this.yaw, 0, 1, 0);
+            GlStateManager.rotate(this.pitch, 1, 0, 0);
+            GlStateManager.rotate(180, 0, 0, 1);
+            GlStateManager.scale(label.scale, label.scale, label.scale);
+            GlStateManager.translate(0, label.offset, -0.1);
 
-        GlStateManager.translate(0, -13, 0);
-        GlStateManager.scale(0.5f, 0.5f, 0.5f);
+            this.mc.fontRendererObj.drawString(label.text, -width, 0, -1);
 
-        this.mc.fontRendererObj.drawString(durationString, -durationWidth, 0, -1);
+            GlStateManager.popMatrix();
+        }
 
-        GlStateManager.popAttrib();
-        GlStateManager.popMatrix();
         GlStateManager.color(1, 1, 1, 1);
     }
 
     /**
-     * Draw a line between two positions
+     * Draw the path point
+     *
+     * This method is responsible for drawing a square with a label which shows
+     * the index of that point. This is very useful for path point management.
      */
-    private void drawLine(Color color, double playerX, double playerY, double playerZ, Position prev, Position next)
+    private void drawPathPoint(VertexBuffer vb, Color color, Position position, int index)
     {
-        GlStateManager.pushMatrix();
-        GlStateManager.pushAttrib();
+        float x = position.point.x;
+        float y = position.point.y;
+        float z = position.point.z;
 
-        double x = prev.point.x - playerX;
-        double y = prev.point.y - playerY;
-        double z = prev.point.z - playerZ;
+        if (!this.isVisible(x - 0.5, y - 0.5, z - 0.5, x + 0.5, y + 0.5, z + 0.5))
+        {
+            return;
+        }
 
-        GL11.glLineWidth(4);
-        GlStateManager.disableTexture2D();
-        GlStateManager.color(color.red, color.green, color.blue, 0.5F);
+        float texX = 32F / 34F;
+        float texRX = 34F / 34F;
 
-        VertexBuffer vb = Tessellator.getInstance().getBuffer();
+        this.addQuad(vb, position, 0.1F, texX, 0, texRX, 2.0F / 16.0F, color, 1.0F);
+        this.addLabel(position, String.valueOf(index), 0.03F, -15.5F);
+    }
 
-        vb.setTranslation(x, y + this.mc.thePlayer.eyeHeight, z);
-        vb.begin(GL11.GL_LINES, DefaultVertexFormats.POSITION);
-        vb.pos(next.point.x - prev.point.x, next.point.y - prev.point.y, next.point.z - prev.point.z).endVertex();
-        vb.pos(0, 0, 0).endVertex();
+    /**
+     * Draw the card of the fixture with the information about this fixture,
+     * like duration and stuff.
+     */
+    private void drawCard(VertexBuffer vb, Color color, int index, long duration, Position pos)
+    {
+        float x = pos.point.x;
+        float y = pos.point.y;
+        float z = pos.point.z;
 
-        Tessellator.getInstance().draw();
+        if (!this.isVisible(x - 1, y - 1, z - 1, x + 1, y + 1, z + 1))
+        {
+            return;
+        }
 
-        vb.setTranslation(0, 0, 0);
+        this.addQuad(vb, pos, 0.5F, 0, 0, 16F / 34F, 1, color, 0.8F);
+        this.addLabel(pos, String.valueOf(index), 0.05F, -3.5F);
+        this.addLabel(pos, duration + "t", 0.025F, -33F);
+    }
 
-        GlStateManager.enableTexture2D();
-        GlStateManager.popAttrib();
-        GlStateManager.popMatrix();
+    /**
+     * Label which is drawn after all quads
+     */
+    private static class Label
+    {
+        public double x;
+        public double y;
+        public double z;
+        public String text;
+        public float scale;
+        public float offset;
     }
-}
\ No newline at end of file
+}
@@ -91,6 +91,12 @@ public class CameraRunner
      */
     public CameraOutside outside = new CameraOutside();
 
+    /**
+     * Reused builder of debug messages, so logging frames doesn't box
+     * values every frame
+     */
+    private StringBuilder debug = new StringBuilder();
+
     /* Used by camera renderer */
     public float yaw = 0.0F;
     public float pitch = 0.0F;
@@ -141,8 +147,8 @@ public class CameraRunner
 
     /**
      * Start the profile runner. This method also responsible for setting
-     * important values before starting the run (like setting duration, and
-     * reseting ticks).
+     * important values before starting the run (like setting duration, 
+     * reseting ticks and baking camera profile).
      */
     public void start(CameraProfile profile, long start)
     {
@@ -172,6 +178,12 @@ public class CameraRunner
 
         this.position.set(this.mc.thePlayer);
 
+        if (Aperture.proxy.config.camera_bake)
+        {
+            /* Bake it right away, so the first frame doesn't hitch */
+            this.profile.bake(Aperture.proxy.config.camera_bake_rate, this.position);
+        }
+
         this.isRunning = true;
         this.duration = this.profile.getDuration();
         this.ticks = start;
@@ -295,14 +307,22 @@ public class CameraRunner
 
             if (Aperture.proxy.config.camera_debug_ticks)
             {
-                Aperture.LOGGER.info("Camera render frame: " + event.renderTickTime + " " + this.ticks);
+                this.debug.setLength(0);
+                Aperture.LOGGER.info(this.debug.append("Camera render frame: ").append(event.renderTickTime).append(' ').append(this.ticks));
             }
 
             float prevX = this.position.point.x;
             float prevY = this.position.point.y;
             float prevZ = this.position.point.z;
 
-            this.profile.applyProfile(progress, event.renderTickTime, this.position);
+            if (Aperture.proxy.config.camera_bake)
+            {
+                this.profile.bake(Aperture.proxy.config.camera_bake_rate, this.position).applyProfile(progress, event.renderTickTime, this.position);
+            }
+            else
+            {
+                this.profile.applyProfile(progress, event.renderTickTime, this.position);
+            }
 
             EntityPlayer player = this.mc.thePlayer;
             Point point = this.position.point;
@@ -406,7 +426,8 @@ public class CameraRunner
         {
             if (Aperture.proxy.config.camera_debug_ticks)
             {
-                Aperture.LOGGER.info("Camera frame: " + this.ticks);
+                this.debug.setLength(0);
+                Aperture.LOGGER.info(this.debug.append("Camera frame: ").append(this.ticks));
             }
 
             if (this.firstTickZero && this.firstTickZeroStart || !this.firstTickZero)
@@ -1,27 +1,33 @@
 package mchorse.aperture.camera;
 
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.stream.JsonWriter;
 
+import io.netty.buffer.ByteBuf;
 import mchorse.aperture.camera.fixtures.AbstractFixture;
 import mchorse.aperture.camera.json.AbstractFixtureAdapter;
 import mchorse.aperture.capabilities.camera.Camera;
 import mchorse.aperture.capabilities.camera.ICamera;
+import mchorse.aperture.network.ChunkedSender;
 import mchorse.aperture.network.Dispatcher;
 import mchorse.aperture.network.common.PacketCameraProfile;
+import mchorse.aperture.network.common.PacketCameraProfileDelta;
+import mchorse.aperture.network.common.PacketCameraProfileOffer;
+import mchorse.aperture.network.common.PacketCameraProfileResend;
 import mchorse.aperture.network.common.PacketCameraState;
 import mchorse.aperture.utils.L10n;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 
 /**
  * Utilities for camera classes
@@ -31,6 +37,15 @@ import net.minecraftforge.common.DimensionManager;
  */
 public class CameraUtils
 {
+    /**
+     * Whether given camera profile name is valid. Names may contain sub 
+     * folders (namespaces) separated by "/".
+     */
+    public static boolean isValidFilename(String filename)
+    {
+        return filename.matches("^[\\w\\d_ -]+(/[\\w\\d_ -]+)*$");
+    }
+
     /**
      * Get path to camera profile file (located in current world save's folder)
      */
@@ -68,29 +83,19 @@ public class CameraUtils
     }
 
     /**
-     * Read CameraProfile instance from given file
+     * Read CameraProfile instance from given file (either binary or JSON)
      */
-    public static String readCameraProfile(String filename) throws Exception
+    public static CameraProfile readCameraProfile(String filename) throws Exception
     {
-        String path = cameraFile(filename);
-        DataInputStream stream = new DataInputStream(new FileInputStream(path));
-        Scanner scanner = new Scanner(stream, "UTF-8");
-        String content = scanner.useDelimiter("\\A").next();
-
-        scanner.close();
-
-        return content;
+        return CameraFormat.read(new File(cameraFile(filename)));
     }
 
     /**
      * Write CameraProfile instance to given file
      */
-    public static void writeCameraProfile(String filename, String profile) throws IOException
+    public static void writeCameraProfile(String filename, CameraProfile profile) throws IOException
     {
-        PrintWriter printer = new PrintWriter(cameraFile(filename));
-
-        printer.print(profile);
-        printer.close();
+        CameraFormat.write(new File(cameraFile(filename)), profile);
     }
 
     /* Commands */
@@ -99,34 +104,116 @@ public class CameraUtils
      * Send a camera profile that was read from given file to player.
      *
      * This method also checks if player has same named camera profile, and if
-     * it's expired (server has newer version), send him new one.
+     * it's expired (server has newer version), send him new one. Camera 
+     * profile is read on the I/O thread (unless it's already cached), and 
+     * sent from the server thread.
      */
     public static void sendProfileToPlayer(String filename, EntityPlayerMP player, boolean play, boolean force)
     {
-        try
+        sendProfileToPlayers(filename, Collections.singletonList(player), play, force);
+    }
+
+    /**
+     * Send a camera profile that was read from given file to many players.
+     *
+     * Works the same way as {@link #sendProfileToPlayer(String, EntityPlayerMP, boolean, boolean)}, 
+     * but camera profile is read and hashed only once. Players get only 
+     * the content hash of camera profile at first, and those who don't 
+     * have it cached ask for the camera profile itself (which is encoded 
+     * only once as well, see {@link #sendProfilePayload(String, EntityPlayerMP, boolean)}).
+     */
+    public static void sendProfileToPlayers(String filename, Collection<EntityPlayerMP> players, boolean play, boolean force)
+    {
+        List<EntityPlayerMP> recipients = new ArrayList<EntityPlayerMP>(players.size());
+
+        for (EntityPlayerMP player : players)
+        {
+            if (force || !playerHasProfile(player, filename, play))
+            {
+                recipients.add(player);
+            }
+        }
+
+        if (recipients.isEmpty())
+        {
+            return;
+        }
+
+        CameraCache.get(new File(cameraFile(filename)), getServer(), (profile, error) ->
         {
-            if (!force && playerHasProfile(player, filename, play))
+            if (error != null)
             {
+                error.printStackTrace();
+
+                for (EntityPlayerMP player : recipients)
+                {
+                    L10n.error(player, "profile.cant_load", filename);
+                }
+
                 return;
             }
 
-            CameraProfile profile = cameraJSONBuilder(true).fromJson(readCameraProfile(filename), CameraProfile.class);
-            ICamera recording = Camera.get(player);
+            long hash = profile.getHash();
 
-            recording.setCurrentProfile(filename);
-            recording.setCurrentProfileTimestamp(System.currentTimeMillis());
+            for (EntityPlayerMP player : recipients)
+            {
+                /* Offered camera profile supersedes the one which is still 
+                 * being sent, so it wouldn't overwrite the offered one once 
+                 * the transfer is done */
+                ChunkedSender.cancel(player);
+                Dispatcher.sendTo(new PacketCameraProfileOffer(filename, hash, play), player);
+            }
+        });
+    }
 
-            Dispatcher.sendTo(new PacketCameraProfile(filename, profile, play), player);
-        }
-        catch (Exception e)
+    /**
+     * Send the camera profile itself to the player, who doesn't have it 
+     * in the client profile cache. Big camera profiles are compressed and 
+     * sent in chunks over several ticks, and the player is marked as 
+     * having the camera profile only once the last chunk was sent.
+     */
+    public static void sendProfilePayload(String filename, EntityPlayerMP player, boolean play)
+    {
+        CameraCache.get(new File(cameraFile(filename)), getServer(), (profile, error) ->
         {
-            e.printStackTrace();
-            L10n.error(player, "profile.cant_load", filename);
-        }
+            if (error != null)
+            {
+                error.printStackTrace();
+                L10n.error(player, "profile.cant_load", filename);
+
+                return;
+            }
+
+            ByteBuf payload = profile.getPayload();
+
+            if (payload.readableBytes() >= ChunkedSender.THRESHOLD)
+            {
+                ChunkedSender.send(player, filename, profile.getChunks(), play);
+            }
+            else
+            {
+                ChunkedSender.cancel(player);
+                Dispatcher.sendTo(new PacketCameraProfile(filename, payload, play), player);
+                markProfileLoaded(player, filename);
+            }
+        });
+    }
+
+    /**
+     * Remember that given player has loaded given camera profile 
+     */
+    public static void markProfileLoaded(EntityPlayerMP player, String filename)
+    {
+        ICamera recording = Camera.get(player);
+
+        recording.setCurrentProfile(filename);
+        recording.setCurrentProfileTimestamp(System.currentTimeMillis());
     }
 
     /**
-     * Checks whether player has older camera profile
+     * Checks whether player has older camera profile. Player who is still 
+     * receiving another camera profile doesn't have the current one 
+     * loaded for long, so it gets sent again.
      */
     private static boolean playerHasProfile(EntityPlayerMP player, String filename, boolean play)
     {
@@ -136,7 +223,7 @@ public class CameraUtils
         boolean hasSame = recording.currentProfile().equals(filename);
         boolean isNewer = recording.currentProfileTimestamp() >= profile.lastModified();
 
-        if (hasSame && isNewer)
+        if (hasSame && isNewer && !ChunkedSender.isSending(player))
         {
             if (play)
             {
@@ -154,24 +241,64 @@ public class CameraUtils
     }
 
     /**
-     * Save given camera profile to file. Inform user about the problem, if the
-     * camera profile couldn't be saved.
+     * Save given camera profile to file on the I/O thread. Inform user about 
+     * the problem, if the camera profile couldn't be saved, otherwise 
+     * invoke given callback on the server thread. Given profile gets 
+     * cached, so it shouldn't be modified afterwards.
      */
-    public static boolean saveCameraProfile(String filename, String profile, EntityPlayerMP player)
+    public static void saveCameraProfile(String filename, CameraProfile profile, EntityPlayerMP player, Runnable callback)
     {
-        try
+        File destination = new File(cameraFile(filename));
+
+        /* Cache it right away, so following deltas could be applied on 
+         * top of it, even if it wasn't written yet */
+        CameraCache.put(destination, profile);
+        CameraIO.write(destination, profile, getServer(), (file, error) ->
         {
-            writeCameraProfile(filename, profile);
-        }
-        catch (IOException e)
+            if (error != null)
+            {
+                CameraCache.invalidate(destination);
+                error.printStackTrace();
+                L10n.error(player, "profile.cant_save", filename);
+            }
+            else
+            {
+                CameraCache.put(destination, profile);
+                callback.run();
+            }
+        });
+    }
+
+    /**
+     * Apply camera profile delta received from given player on top of 
+     * server's copy of the camera profile, and save the result. If the 
+     * server's copy isn't the one the delta was made for (or it doesn't 
+     * exist), ask the player to send the full camera profile instead.
+     */
+    public static void saveProfileDelta(PacketCameraProfileDelta delta, EntityPlayerMP player, Runnable callback)
+    {
+        CameraCache.get(new File(cameraFile(delta.filename)), getServer(), (cached, error) ->
         {
-            e.printStackTrace();
-            L10n.error(player, "profile.cant_save", filename);
+            CameraProfile profile = cached == null ? null : delta.apply(cached.profile, cached.getHashes());
 
-            return false;
-        }
+            if (profile == null)
+            {
+                Dispatcher.sendTo(new PacketCameraProfileResend(delta.filename), player);
 
-        return true;
+                return;
+            }
+
+            saveCameraProfile(delta.filename, profile, player, callback);
+        });
+    }
+
+    /**
+     * Get current server (used for scheduling I/O callbacks on the 
+     * server thread)
+     */
+    private static MinecraftServer getServer()
+    {
+        return FMLCommonHandler.instance().getMinecraftServerInstance();
     }
 
     /**
@@ -182,14 +309,16 @@ public class CameraUtils
      */
     public static String toJSON(CameraProfile profile)
     {
-        Gson gson = cameraJSONBuilder(true);
-
         StringWriter writer = new StringWriter();
-        JsonWriter jsonWriter = new JsonWriter(writer);
 
-        /* Set 4 space indentation instead of shitty 2 space indentation */
-        jsonWriter.setIndent("    ");
-        gson.toJson(profile, CameraProfile.class, jsonWriter);
+        try
+        {
+            CameraFormat.writeJSON(writer, profile);
+        }
+        catch (IOException e)
+        {
+            /* StringWriter doesn't throw */
+        }
 
         return writer.toString();
     }
@@ -202,16 +331,38 @@ public class CameraUtils
         File fromFile = new File(cameraFile(from));
         File toFile = new File(cameraFile(to));
 
-        return fromFile.renameTo(toFile);
+        CameraCache.invalidate(fromFile);
+        CameraCache.invalidate(toFile);
+
+        if (fromFile.renameTo(toFile))
+        {
+            ProfileHeader.rename(fromFile, toFile);
+            ProfileIndex.removed(fromFile);
+            ProfileIndex.added(toFile);
+
+            return true;
+        }
+
+        return false;
     }
 
     /**
-     * Rename camera profile 
+     * Remove camera profile 
      */
     public static boolean removeProfile(String profile)
     {
         File file = new File(cameraFile(profile));
 
-        return file.delete();
+        CameraCache.invalidate(file);
+        ProfileHeader.remove(file);
+
+        if (file.delete())
+        {
+            ProfileIndex.removed(file);
+
+            return true;
+        }
+
+        return false;
     }
 }
\ No newline at end of file
@@ -46,6 +46,21 @@ public class FixtureRegistry
      */
     private static byte NEXT_ID = 0;
 
+    /**
+     * Mapping of fixture IDs which were read from a binary camera 
+     * profile file to current IDs (see {@link CameraFormat})
+     */
+    private static final ThreadLocal<byte[]> REMAP = new ThreadLocal<byte[]>();
+
+    /**
+     * Set ID mapping for fixtures which are read on current thread, 
+     * or null to stop remapping
+     */
+    public static void setRemap(byte[] remap)
+    {
+        REMAP.set(remap);
+    }
+
     /**
      * Create camera from type
      */
@@ -80,6 +95,12 @@ public class FixtureRegistry
     public static AbstractFixture fromByteBuf(ByteBuf buffer)
     {
         byte type = buffer.readByte();
+        byte[] remap = REMAP.get();
+
+        if (remap != null && type >= 0 && type < remap.length)
+        {
+            type = remap[type];
+        }
         long duration = buffer.readLong();
 
         try
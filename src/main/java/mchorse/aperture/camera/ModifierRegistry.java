@@ -39,6 +39,21 @@ public class ModifierRegistry
      */
     private static byte NEXT_ID = 0;
 
+    /**
+     * Mapping of modifier IDs which were read from a binary camera 
+     * profile file to current IDs (see {@link CameraFormat})
+     */
+    private static final ThreadLocal<byte[]> REMAP = new ThreadLocal<byte[]>();
+
+    /**
+     * Set ID mapping for modifiers which are read on current thread, 
+     * or null to stop remapping
+     */
+    public static void setRemap(byte[] remap)
+    {
+        REMAP.set(remap);
+    }
+
     /**
      * Get type from abstract modifier
      */
@@ -81,7 +96,15 @@ public class ModifierRegistry
     {
         try
         {
-            AbstractModifier modifier = fromType(buffer.readByte());
+            byte type = buffer.readByte();
+            byte[] remap = REMAP.get();
+
+            if (remap != null && type >= 0 && type < remap.length)
+            {
+                type = remap[type];
+            }
+
+            AbstractModifier modifier = fromType(type);
 
             modifier.fromByteBuf(buffer);
 
@@ -0,0 +1,658 @@
+package mchorse.aperture.camera;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.lwjgl.opengl.GL11;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.fixtures.CircularFixture;
+import mchorse.aperture.camera.fixtures.NullFixture;
+import mchorse.aperture.camera.fixtures.PathFixture;
+import mchorse.aperture.utils.Color;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Path preview
+ *
+ * Cached geometry of camera profile's preview. Every fixture's sampled
+ * path is uploaded once into a vertex buffer (or a display list, if VBOs
+ * aren't supported), along with positions of its cards and path points,
+ * so rendering the preview doesn't evaluate fixtures every frame.
+ *
+ * Previews are stored by content hash of their fixtures (see
+ * {@link CameraProfile#getFixtureHashes()}), so when camera profile gets
+ * changed, only added or modified fixtures are sampled again.
+ *
+ * Path segments are subdivided adaptively: a segment is split while its
+ * middle sample deviates from the straight line by more than
+ * {@link #ERROR}, so straight segments take only a few vertices and tight
+ * curves get as many as they need. A coarse level of detail (with
+ * {@link #COARSE_ERROR}) is picked out of the same samples, and it's
+ * drawn for fixtures which are far away. Sampling is limited by a budget
+ * per frame, so big camera profiles are built over several frames. The
+ * budget is checked between path segments (a segment takes at most
+ * 2^{@link #MAX_DEPTH} samples), so a long path gets built over
+ * several frames as well.
+ */
+@SideOnly(Side.CLIENT)
+public class PathPreview
+{
+    /**
+     * Maximum deviation (in blocks) of path preview from the actual path
+     */
+    public static final float ERROR = 0.02F;
+
+    /**
+     * Maximum deviation (in blocks) of coarse path preview
+     */
+    public static final float COARSE_ERROR = 0.5F;
+
+    /**
+     * Every path segment is split at least this many times (so S-like
+     * curves which cross the straight line in the middle aren't lost)
+     */
+    public static final int MIN_DEPTH = 2;
+
+    /**
+     * Path segment is split at most this many times
+     */
+    public static final int MAX_DEPTH = 7;
+
+    /**
+     * Camera profile which is cached
+     */
+    private CameraProfile profile;
+
+    /**
+     * Whether camera profile was changed since the last update
+     */
+    private boolean dirty = true;
+
+    /**
+     * Whether some of previews weren't built yet
+     */
+    private boolean pending;
+
+    /**
+     * Previews of fixtures mapped by fixture hashes
+     */
+    private Map<Long, FixturePreview> cache = new HashMap<Long, FixturePreview>();
+
+    /**
+     * Previews of camera profile's fixtures in the same order
+     */
+    private List<FixturePreview> previews = new ArrayList<FixturePreview>();
+
+    /* Sampled vertices of a fixture which is being built */
+    private float[] vertices = new float[768];
+    private boolean[] coarse = new boolean[256];
+    private int count;
+    private int samples;
+
+    /* Preview which path is being built, and the step (path segment or
+     * circle's arc) of its path to resume sampling from */
+    private FixturePreview building;
+    private int step;
+    private float tick;
+
+    /* Position which is reused to sample fixtures */
+    private Position position = new Position(0, 0, 0, 0, 0);
+
+    /**
+     * Mark given camera profile as changed
+     */
+    public void markDirty(CameraProfile profile)
+    {
+        if (profile == this.profile)
+        {
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * Get previews of given camera profile's fixtures, sampling only
+     * those fixtures which were changed since the last update. Paths are
+     * sampled until given amount of samples is taken, the rest is left
+     * for the next frames.
+     */
+    public List<FixturePreview> update(CameraProfile profile, int budget)
+    {
+        if (profile != this.profile)
+        {
+            this.delete();
+            this.profile = profile;
+            this.dirty = true;
+        }
+
+        if (this.dirty)
+        {
+            this.collect(profile);
+        }
+
+        if (this.pending)
+        {
+            this.build(profile, budget);
+        }
+
+        return this.previews;
+    }
+
+    /**
+     * Match fixtures of given camera profile with cached previews, and
+     * create previews for added or modified fixtures
+     */
+    private void collect(CameraProfile profile)
+    {
+        long[] hashes = profile.getFixtureHashes();
+        Map<Long, FixturePreview> cache = new HashMap<Long, FixturePreview>();
+
+        this.previews.clear();
+
+        for (int i = 0; i < hashes.length; i++)
+        {
+            FixturePreview preview = cache.get(hashes[i]);
+
+            if (preview == null)
+            {
+                preview = this.cache.remove(hashes[i]);
+            }
+
+            if (preview == null)
+            {
+                preview = this.create(profile, profile.get(i));
+            }
+
+            cache.put(hashes[i], preview);
+            this.previews.add(preview);
+            this.pending |= preview.fixture != null;
+        }
+
+        for (FixturePreview preview : this.cache.values())
+        {
+            preview.delete();
+        }
+
+        this.cache = cache;
+        this.dirty = false;
+    }
+
+    /**
+     * Build paths of previews which weren't built yet, until given
+     * amount of samples is taken (at least one path segment is built
+     * per frame)
+     */
+    private void build(CameraProfile profile, int budget)
+    {
+        this.samples = 0;
+        this.pending = false;
+
+        for (FixturePreview preview : this.previews)
+        {
+            if (preview.fixture == null)
+            {
+                continue;
+            }
+
+            if (!this.sample(profile, preview, budget))
+            {
+                this.pending = true;
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delete all cached previews
+     */
+    public void delete()
+    {
+        for (FixturePreview preview : this.cache.values())
+        {
+            preview.delete();
+        }
+
+        this.cache.clear();
+        this.previews.clear();
+        this.profile = null;
+        this.pending = false;
+        this.building = null;
+    }
+
+    /**
+     * Create a preview of given fixture with its cards, while its path
+     * gets built later
+     */
+    private FixturePreview create(CameraProfile profile, AbstractFixture fixture)
+    {
+        FixturePreview preview = new FixturePreview();
+        long duration = fixture.getDuration();
+
+        preview.color = FixtureRegistry.CLIENT.get(fixture.getClass()).color;
+        preview.duration = duration;
+        preview.live = fixture instanceof NullFixture;
+
+        fixture.applyFixture(0, 0.0F, profile, preview.start);
+        fixture.applyFixture(duration, 0.0F, profile, preview.end);
+
+        if (duration > 0 && (fixture instanceof PathFixture || fixture instanceof CircularFixture))
+        {
+            preview.fixture = fixture;
+        }
+
+        return preview;
+    }
+
+    /**
+     * Sample path of given preview's fixture step by step, until given
+     * amount of samples is taken, and upload it once it's done. Returns
+     * whether the path was built, otherwise sampling gets resumed from
+     * the same step on the next call.
+     */
+    private boolean sample(CameraProfile profile, FixturePreview preview, int budget)
+    {
+        AbstractFixture fixture = preview.fixture;
+        int mode = GL11.GL_LINE_STRIP;
+
+        if (preview != this.building)
+        {
+            this.building = preview;
+            this.step = 0;
+            this.count = 0;
+            preview.points.clear();
+        }
+
+        if (fixture instanceof PathFixture)
+        {
+            PathFixture path = (PathFixture) fixture;
+            Position position = this.position;
+            int size = path.getPoints().size() - 1;
+
+            if (size > 0 && this.step == 0)
+            {
+                this.tick = 0;
+                this.samplePath(path, profile, 0);
+                this.step = 1;
+            }
+
+            for (; this.step <= size; this.step++)
+            {
+                if (this.samples >= budget)
+                {
+                    return false;
+                }
+
+                int i = this.step;
+                float t0 = this.tick;
+                float t1 = i == size ? preview.duration : path.getTickForPoint(i);
+                int last = (this.count - 1) * 3;
+
+                path.applyFixture((long) t1, t1 - (long) t1, profile, position);
+                this.samples++;
+
+                float x = position.point.x;
+                float y = position.point.y;
+                float z = position.point.z;
+
+                if (i != size)
+                {
+                    preview.points.add(position.clone());
+                }
+
+                this.subdivide(path, profile, t0, this.vertices[last], this.vertices[last + 1], this.vertices[last + 2], t1, x, y, z, 0, true);
+                this.add(x, y, z, true);
+
+                this.tick = t1;
+            }
+        }
+        else if (fixture instanceof CircularFixture)
+        {
+            float circles = Math.min(((CircularFixture) fixture).circles, 360);
+
+            mode = GL11.GL_LINES;
+
+            for (; this.step * 5 < circles; this.step++)
+            {
+                if (this.samples >= budget)
+                {
+                    return false;
+                }
+
+                int i = this.step * 5;
+
+                this.samplePath(fixture, profile, i / circles * preview.duration);
+                this.samplePath(fixture, profile, (i + 3) / circles * preview.duration);
+            }
+        }
+
+        preview.fixture = null;
+        this.building = null;
+
+        if (this.count > 1)
+        {
+            preview.upload(this.vertices, this.coarse, this.count, mode);
+        }
+
+        return true;
+    }
+
+    /**
+     * Split path segment between two positions (at given ticks) while
+     * its middle deviates from the straight line. Middle vertices are
+     * added in order, but the end of segment isn't added.
+     */
+    private void subdivide(AbstractFixture fixture, CameraProfile profile, float t0, float x0, float y0, float z0, float t1, float x1, float y1, float z1, int depth, boolean coarse)
+    {
+        if (depth >= MAX_DEPTH)
+        {
+            return;
+        }
+
+        float t = (t0 + t1) / 2;
+        Position position = this.position;
+
+        fixture.applyFixture((long) t, t - (long) t, profile, position);
+        this.samples++;
+
+        float x = position.point.x;
+        float y = position.point.y;
+        float z = position.point.z;
+        float error = getDeviation(x0, y0, z0, x1, y1, z1, x, y, z);
+
+        if (depth >= MIN_DEPTH && error <= ERROR)
+        {
+            return;
+        }
+
+        coarse = coarse && error > COARSE_ERROR;
+
+        this.subdivide(fixture, profile, t0, x0, y0, z0, t, x, y, z, depth + 1, coarse);
+        this.add(x, y, z, coarse);
+        this.subdivide(fixture, profile, t, x, y, z, t1, x1, y1, z1, depth + 1, coarse);
+    }
+
+    /**
+     * Sample fixture at given tick and add it as a vertex
+     */
+    private void samplePath(AbstractFixture fixture, CameraProfile profile, float tick)
+    {
+        Position position = this.position;
+
+        fixture.applyFixture((long) tick, tick - (long) tick, profile, position);
+        this.samples++;
+        this.add(position.point.x, position.point.y, position.point.z, true);
+    }
+
+    /**
+     * Distance from given point to the line between two other points
+     */
+    private static float getDeviation(float ax, float ay, float az, float bx, float by, float bz, float x, float y, float z)
+    {
+        float dx = bx - ax, dy = by - ay, dz = bz - az;
+        float px = x - ax, py = y - ay, pz = z - az;
+        float length = dx * dx + dy * dy + dz * dz;
+
+        if (length > 0)
+        {
+            float f = Math.max(0, Math.min((px * dx + py * dy + pz * dz) / length, 1));
+
+            px -= dx * f;
+            py -= dy * f;
+            pz -= dz * f;
+        }
+
+        return (float) Math.sqrt(px * px + py * py + pz * pz);
+    }
+
+    /**
+     * Add a vertex at the end
+     */
+    private void add(float x, float y, float z, boolean coarse)
+    {
+        this.ensureCapacity();
+
+        this.vertices[this.count * 3] = x;
+        this.vertices[this.count * 3 + 1] = y;
+        this.vertices[this.count * 3 + 2] = z;
+        this.coarse[this.count] = coarse;
+        this.count++;
+    }
+
+    private void ensureCapacity()
+    {
+        if (this.count >= this.coarse.length)
+        {
+            float[] vertices = new float[this.vertices.length * 2];
+            boolean[] coarse = new boolean[this.coarse.length * 2];
+
+            System.arraycopy(this.vertices, 0, vertices, 0, this.vertices.length);
+            System.arraycopy(this.coarse, 0, coarse, 0, this.coarse.length);
+
+            this.vertices = vertices;
+            this.coarse = coarse;
+        }
+    }
+
+    /**
+     * Cached preview of a single fixture
+     */
+    public static class FixturePreview
+    {
+        public Color color;
+        public long duration;
+
+        /**
+         * Whether this fixture depends on other fixtures, so its cards
+         * should be evaluated every frame
+         */
+        public boolean live;
+
+        /**
+         * Positions of fixture's start and end (used for cards)
+         */
+        public Position start = new Position(0, 0, 0, 0, 0);
+        public Position end = new Position(0, 0, 0, 0, 0);
+
+        /**
+         * Positions of path points (except the first and the last one)
+         */
+        public List<Position> points = new ArrayList<Position>();
+
+        /**
+         * Bounding box of the path
+         */
+        public float minX;
+        public float minY;
+        public float minZ;
+        public float maxX;
+        public float maxY;
+        public float maxZ;
+
+        /**
+         * Fixture which path is yet to be built
+         */
+        private AbstractFixture fixture;
+
+        /* Path geometry, relative to the start position */
+        private Geometry geometry;
+        private Geometry coarse;
+
+        /**
+         * Upload given vertices, and the coarse ones separately
+         */
+        private void upload(float[] vertices, boolean[] mask, int count, int mode)
+        {
+            int coarse = 0;
+
+            this.minX = this.maxX = vertices[0];
+            this.minY = this.maxY = vertices[1];
+            this.minZ = this.maxZ = vertices[2];
+
+            for (int i = 0; i < count; i++)
+            {
+                this.minX = Math.min(this.minX, vertices[i * 3]);
+                this.minY = Math.min(this.minY, vertices[i * 3 + 1]);
+                this.minZ = Math.min(this.minZ, vertices[i * 3 + 2]);
+                this.maxX = Math.max(this.maxX, vertices[i * 3]);
+                this.maxY = Math.max(this.maxY, vertices[i * 3 + 1]);
+                this.maxZ = Math.max(this.maxZ, vertices[i * 3 + 2]);
+
+                coarse += mask[i] ? 1 : 0;
+            }
+
+            this.geometry = this.upload(vertices, null, count, mode);
+
+            if (coarse > 1 && coarse < count)
+            {
+                this.coarse = this.upload(vertices, mask, count, mode);
+            }
+        }
+
+        private Geometry upload(float[] vertices, boolean[] mask, int count, int mode)
+        {
+            VertexBuffer vb = Tessellator.getInstance().getBuffer();
+            Position origin = this.start;
+
+            vb.begin(mode, DefaultVertexFormats.POSITION);
+
+            for (int i = 0; i < count; i++)
+            {
+                if (mask == null || mask[i])
+                {
+                    vb.pos(vertices[i * 3] - origin.point.x, vertices[i * 3 + 1] - origin.point.y, vertices[i * 3 + 2] - origin.point.z).endVertex();
+                }
+            }
+
+            Geometry geometry = new Geometry(mode);
+
+            if (OpenGlHelper.useVbo())
+            {
+                geometry.vbo = new net.minecraft.client.renderer.vertex.VertexBuffer(DefaultVertexFormats.POSITION);
+
+                vb.finishDrawing();
+                vb.reset();
+                geometry.vbo.bufferData(vb.getByteBuffer());
+            }
+            else
+            {
+                geometry.list = GLAllocation.generateDisplayLists(1);
+
+                GlStateManager.glNewList(geometry.list, GL11.GL_COMPILE);
+                Tessellator.getInstance().draw();
+                GlStateManager.glEndList();
+            }
+
+            return geometry;
+        }
+
+        /**
+         * Whether this preview has any path geometry
+         */
+        public boolean hasPath()
+        {
+            return this.geometry != null;
+        }
+
+        /**
+         * Distance from given point to the bounding box of the path
+         */
+        public double getDistance(double x, double y, double z)
+        {
+            double dx = Math.max(0, Math.max(this.minX - x, x - this.maxX));
+            double dy = Math.max(0, Math.max(this.minY - y, y - this.maxY));
+            double dz = Math.max(0, Math.max(this.minZ - z, z - this.maxZ));
+
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+
+        /**
+         * Draw path with one draw call. Translation to the start position
+         * and color should be already set up.
+         */
+        public void drawPath(boolean coarse)
+        {
+            Geometry geometry = coarse && this.coarse != null ? this.coarse : this.geometry;
+
+            if (geometry != null)
+            {
+                geometry.draw();
+            }
+        }
+
+        /**
+         * Free GPU resources of this preview
+         */
+        public void delete()
+        {
+            if (this.geometry != null)
+            {
+                this.geometry.delete();
+                this.geometry = null;
+            }
+
+            if (this.coarse != null)
+            {
+                this.coarse.delete();
+                this.coarse = null;
+            }
+        }
+    }
+
+    /**
+     * Uploaded vertices (in VBO or a display list)
+     */
+    private static class Geometry
+    {
+        public net.minecraft.client.renderer.vertex.VertexBuffer vbo;
+        public int list = -1;
+        public int mode;
+
+        public Geometry(int mode)
+        {
+            this.mode = mode;
+        }
+
+        public void draw()
+        {
+            if (this.vbo != null)
+            {
+                this.vbo.bindBuffer();
+                GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+                GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, 12, 0);
+                this.vbo.drawArrays(this.mode);
+                this.vbo.unbindBuffer();
+                GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+            }
+            else if (this.list != -1)
+            {
+                GlStateManager.callList(this.list);
+            }
+        }
+
+        public void delete()
+        {
+            if (this.vbo != null)
+            {
+                this.vbo.deleteGlBuffers();
+                this.vbo = null;
+            }
+
+            if (this.list != -1)
+            {
+                GLAllocation.deleteDisplayLists(this.list);
+                this.list = -1;
+            }
+        }
+    }
+}
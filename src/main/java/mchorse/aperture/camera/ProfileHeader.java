@@ -0,0 +1,410 @@
+package mchorse.aperture.camera;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+
+/**
+ * Camera profile header
+ *
+ * Lightweight summary of a camera profile file: amount of fixtures, their
+ * types, names and durations, and total duration. It's stored next to the
+ * camera profile file (with {@link #EXTENSION} appended), so camera
+ * profile browsers could show metadata of many big camera profiles, and
+ * find fixtures by tick, without parsing them.
+ *
+ * Index file remembers modification time and size of its camera profile
+ * file, so it's rebuilt when the camera profile was changed (or saved by
+ * older version). Index is rebuilt by scanning JSON as a stream, skipping
+ * everything except fixture types, names and durations.
+ */
+public class ProfileHeader
+{
+    /**
+     * Extension which is appended to camera profile file name
+     */
+    public static final String EXTENSION = ".idx";
+
+    /**
+     * Version of index file format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Headers of fixtures
+     */
+    public final List<FixtureHeader> fixtures = new ArrayList<FixtureHeader>();
+
+    /**
+     * Start ticks of fixtures, and total duration at the end
+     */
+    private long[] offsets;
+
+    /**
+     * Get index file of given camera profile file
+     */
+    public static File getIndexFile(File file)
+    {
+        return new File(file.getParentFile(), file.getName() + EXTENSION);
+    }
+
+    /**
+     * Create a header of given camera profile
+     */
+    public static ProfileHeader fromProfile(CameraProfile profile)
+    {
+        ProfileHeader header = new ProfileHeader();
+
+        for (AbstractFixture fixture : profile.getAll())
+        {
+            header.fixtures.add(new FixtureHeader(FixtureRegistry.NAME_TO_CLASS.inverse().get(fixture.getClass()), fixture.getName(), fixture.getDuration()));
+        }
+
+        return header;
+    }
+
+    /**
+     * Get header of given camera profile file. It's read from the index
+     * file, if it's up to date, otherwise camera profile file gets
+     * scanned and index file is written again.
+     */
+    public static ProfileHeader read(File file) throws IOException
+    {
+        File index = getIndexFile(file);
+
+        if (index.isFile())
+        {
+            try
+            {
+                ProfileHeader header = readIndex(index, file);
+
+                if (header != null)
+                {
+                    return header;
+                }
+            }
+            catch (IOException e)
+            {
+                /* Broken index file, just rebuild it */
+            }
+        }
+
+        ProfileHeader header = scan(file);
+
+        header.write(file);
+
+        return header;
+    }
+
+    /**
+     * Read index file, if it belongs to the current version of given
+     * camera profile file
+     */
+    private static ProfileHeader readIndex(File index, File file) throws IOException
+    {
+        DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(index)));
+
+        try
+        {
+            if (stream.readInt() != VERSION || stream.readLong() != file.lastModified() || stream.readLong() != file.length())
+            {
+                return null;
+            }
+
+            ProfileHeader header = new ProfileHeader();
+
+            for (int i = 0, c = stream.readInt(); i < c; i++)
+            {
+                header.fixtures.add(new FixtureHeader(stream.readUTF(), stream.readUTF(), stream.readLong()));
+            }
+
+            return header;
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Scan camera profile file for fixture headers. JSON is streamed
+     * without building any fixtures, while binary camera profiles are
+     * simply decoded.
+     */
+    public static ProfileHeader scan(File file) throws IOException
+    {
+        InputStream stream = new BufferedInputStream(new FileInputStream(file));
+
+        try
+        {
+            byte[] bytes = new byte[CameraFormat.HEADER_SIZE];
+
+            stream.mark(CameraFormat.HEADER_SIZE);
+
+            if (IOUtils.read(stream, bytes) == CameraFormat.HEADER_SIZE && CameraFormat.isBinary(bytes))
+            {
+                stream.reset();
+
+                return fromProfile(CameraFormat.fromBinary(IOUtils.toByteArray(stream)));
+            }
+
+            stream.reset();
+
+            return scanJSON(new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Scan JSON camera profile, reading only type, name and duration of
+     * every fixture
+     */
+    private static ProfileHeader scanJSON(JsonReader json) throws IOException
+    {
+        ProfileHeader header = new ProfileHeader();
+
+        json.beginObject();
+
+        while (json.hasNext())
+        {
+            if (!json.nextName().equals("fixtures") || json.peek() != JsonToken.BEGIN_ARRAY)
+            {
+                json.skipValue();
+
+                continue;
+            }
+
+            json.beginArray();
+
+            while (json.hasNext())
+            {
+                if (json.peek() != JsonToken.BEGIN_OBJECT)
+                {
+                    json.skipValue();
+
+                    continue;
+                }
+
+                String type = null;
+                String name = "";
+                long duration = 0;
+
+                json.beginObject();
+
+                while (json.hasNext())
+                {
+                    String key = json.nextName();
+
+                    if (json.peek() == JsonToken.NULL)
+                    {
+                        json.nextNull();
+                    }
+                    else if (key.equals("type"))
+                    {
+                        type = json.nextString();
+                    }
+                    else if (key.equals("name"))
+                    {
+                        name = json.nextString();
+                    }
+                    else if (key.equals("duration"))
+                    {
+                        duration = json.nextLong();
+                    }
+                    else
+                    {
+                        json.skipValue();
+                    }
+                }
+
+                json.endObject();
+
+                /* Unknown fixtures aren't loaded either */
+                if (type != null && FixtureRegistry.NAME_TO_CLASS.containsKey(type))
+                {
+                    header.fixtures.add(new FixtureHeader(type, name, duration));
+                }
+            }
+
+            json.endArray();
+        }
+
+        json.endObject();
+
+        return header;
+    }
+
+    /**
+     * Write this header into the index file of given camera profile file
+     * (which should be already written)
+     */
+    public void write(File file) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(bytes);
+
+        stream.writeInt(VERSION);
+        stream.writeLong(file.lastModified());
+        stream.writeLong(file.length());
+        stream.writeInt(this.fixtures.size());
+
+        for (FixtureHeader fixture : this.fixtures)
+        {
+            stream.writeUTF(fixture.type);
+            stream.writeUTF(fixture.name);
+            stream.writeLong(fixture.duration);
+        }
+
+        stream.close();
+        FileUtils.writeByteArrayToFile(getIndexFile(file), bytes.toByteArray());
+    }
+
+    /**
+     * Write this header into the index file of given camera profile file, 
+     * ignoring any failures (index file will be rebuilt once it's needed)
+     */
+    public void writeSafely(File file)
+    {
+        try
+        {
+            this.write(file);
+        }
+        catch (IOException e)
+        {
+            remove(file);
+        }
+    }
+
+    /**
+     * Rename index file along with its camera profile file
+     */
+    public static void rename(File from, File to)
+    {
+        File index = getIndexFile(from);
+
+        if (index.isFile())
+        {
+            index.renameTo(getIndexFile(to));
+        }
+    }
+
+    /**
+     * Remove index file of given camera profile file
+     */
+    public static void remove(File file)
+    {
+        getIndexFile(file).delete();
+    }
+
+    /**
+     * Get the amount of fixtures
+     */
+    public int getCount()
+    {
+        return this.fixtures.size();
+    }
+
+    /**
+     * Get total duration of camera profile
+     */
+    public long getDuration()
+    {
+        long[] offsets = this.getOffsets();
+
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Get the tick at which fixture at given index starts
+     */
+    public long getOffset(int index)
+    {
+        long[] offsets = this.getOffsets();
+
+        return offsets[Math.max(0, Math.min(index, offsets.length - 1))];
+    }
+
+    /**
+     * Find the index of a fixture which runs during given tick (the
+     * amount of fixtures, if the tick is beyond total duration)
+     */
+    public int findIndex(long tick)
+    {
+        long[] offsets = this.getOffsets();
+        int low = 1;
+        int high = offsets.length - 1;
+
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if (offsets[mid] > tick)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                low = mid + 1;
+            }
+        }
+
+        return low - 1;
+    }
+
+    private long[] getOffsets()
+    {
+        if (this.offsets == null || this.offsets.length != this.fixtures.size() + 1)
+        {
+            long[] offsets = new long[this.fixtures.size() + 1];
+            long tick = 0;
+
+            for (int i = 0, c = this.fixtures.size(); i < c; i++)
+            {
+                offsets[i] = tick;
+                tick += this.fixtures.get(i).duration;
+            }
+
+            offsets[offsets.length - 1] = tick;
+            this.offsets = offsets;
+        }
+
+        return this.offsets;
+    }
+
+    /**
+     * Fixture header
+     */
+    public static class FixtureHeader
+    {
+        public final String type;
+        public final String name;
+        public final long duration;
+
+        public FixtureHeader(String type, String name, long duration)
+        {
+            this.type = type == null ? "" : type;
+            this.name = name == null ? "" : name;
+            this.duration = duration;
+        }
+    }
+}
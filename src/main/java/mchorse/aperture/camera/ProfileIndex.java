@@ -0,0 +1,440 @@
+package mchorse.aperture.camera;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import mchorse.aperture.Aperture;
+
+/**
+ * Camera profile index
+ *
+ * In-memory index of camera profile names in a folder, so listing camera
+ * profiles doesn't have to list the folder on the disk every time. Index
+ * is kept up to date by a {@link WatchService} on a separate thread,
+ * and also right away when camera profiles are written, renamed or
+ * removed by Aperture itself.
+ *
+ * Camera profiles may be grouped into sub folders (namespaces), in that
+ * case their names are relative paths separated by "/" (i.e.
+ * "cutscenes/intro"). If folders can't be watched, they're listed every
+ * time as before.
+ */
+public class ProfileIndex
+{
+    /**
+     * Indices mapped by their root folders
+     */
+    private static final Map<Path, ProfileIndex> INDICES = new ConcurrentHashMap<Path, ProfileIndex>();
+
+    /**
+     * Watched folders mapped by their watch keys
+     */
+    private static final Map<WatchKey, Folder> KEYS = new ConcurrentHashMap<WatchKey, Folder>();
+
+    /**
+     * Shared watch service (it's created once it's needed)
+     */
+    private static WatchService watcher;
+
+    /**
+     * Whether watch service isn't supported
+     */
+    private static boolean unsupported;
+
+    /**
+     * Root folder of this index
+     */
+    private final Path root;
+
+    /**
+     * Sorted names of camera profiles
+     */
+    private final Set<String> profiles = new ConcurrentSkipListSet<String>();
+
+    /**
+     * Get names of camera profiles in given folder (it gets created if
+     * it doesn't exist when it's indexed)
+     */
+    public static synchronized List<String> getProfiles(File folder)
+    {
+        Path root = folder.toPath().toAbsolutePath().normalize();
+        ProfileIndex index = INDICES.get(root);
+
+        if (index == null)
+        {
+            folder.mkdirs();
+            index = new ProfileIndex(root);
+
+            if (!index.watch())
+            {
+                return index.scan();
+            }
+
+            INDICES.put(root, index);
+        }
+
+        return new ArrayList<String>(index.profiles);
+    }
+
+    /**
+     * Stop watching given folder and forget its index (i.e. when the
+     * world is closed), so the folder isn't held open by the watch
+     * service and can be deleted
+     */
+    public static synchronized void release(File folder)
+    {
+        Path root = folder.toPath().toAbsolutePath().normalize();
+        ProfileIndex index = INDICES.remove(root);
+
+        if (index == null)
+        {
+            return;
+        }
+
+        Iterator<Map.Entry<WatchKey, Folder>> it = KEYS.entrySet().iterator();
+
+        while (it.hasNext())
+        {
+            Map.Entry<WatchKey, Folder> entry = it.next();
+
+            if (entry.getValue().index == index)
+            {
+                entry.getKey().cancel();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Update index when given camera profile file was written
+     */
+    public static void added(File file)
+    {
+        ProfileIndex index = find(file);
+
+        if (index != null)
+        {
+            index.update(file.toPath().toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Update index when given camera profile file was removed
+     */
+    public static void removed(File file)
+    {
+        ProfileIndex index = find(file);
+
+        if (index != null)
+        {
+            index.remove(file.toPath().toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Find index which contains given file
+     */
+    private static ProfileIndex find(File file)
+    {
+        Path path = file.toPath().toAbsolutePath().normalize();
+
+        for (ProfileIndex index : INDICES.values())
+        {
+            if (path.startsWith(index.root))
+            {
+                return index;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get shared watch service, starting its thread if needed. Returns
+     * {@code null} if file system doesn't support watching.
+     */
+    private static synchronized WatchService getWatcher()
+    {
+        if (watcher == null && !unsupported)
+        {
+            try
+            {
+                watcher = FileSystems.getDefault().newWatchService();
+            }
+            catch (IOException | UnsupportedOperationException e)
+            {
+                unsupported = true;
+
+                return null;
+            }
+
+            Thread thread = new Thread(ProfileIndex::watchLoop, "Aperture profile watcher");
+
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        return watcher;
+    }
+
+    /**
+     * Process watch events of all indices
+     */
+    private static void watchLoop()
+    {
+        while (true)
+        {
+            WatchKey key;
+
+            try
+            {
+                key = watcher.take();
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+
+            Folder folder = KEYS.get(key);
+
+            if (folder != null)
+            {
+                for (WatchEvent<?> event : key.pollEvents())
+                {
+                    if (event.kind() == OVERFLOW)
+                    {
+                        folder.index.rescan();
+
+                        continue;
+                    }
+
+                    Path path = folder.path.resolve((Path) event.context());
+
+                    if (event.kind() == ENTRY_DELETE)
+                    {
+                        folder.index.remove(path);
+                    }
+                    else if (Files.isDirectory(path))
+                    {
+                        folder.index.register(path);
+                    }
+                    else
+                    {
+                        folder.index.update(path);
+                    }
+                }
+            }
+
+            if (!key.reset())
+            {
+                KEYS.remove(key);
+            }
+        }
+    }
+
+    public ProfileIndex(Path root)
+    {
+        this.root = root;
+    }
+
+    /**
+     * Start watching root folder and its sub folders, and fill the index
+     */
+    private boolean watch()
+    {
+        if (getWatcher() == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            this.walk(this.root, true, this.profiles);
+        }
+        catch (IOException e)
+        {
+            Aperture.LOGGER.error("Couldn't watch camera profiles folder " + this.root, e);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Register newly created sub folder and its content
+     */
+    private void register(Path folder)
+    {
+        try
+        {
+            this.walk(folder, true, this.profiles);
+        }
+        catch (IOException e)
+        {
+            Aperture.LOGGER.error("Couldn't watch camera profiles folder " + folder, e);
+        }
+    }
+
+    /**
+     * Rebuild the index from scratch (when some of watch events were lost)
+     */
+    private void rescan()
+    {
+        List<String> profiles = this.scan();
+
+        this.profiles.retainAll(profiles);
+        this.profiles.addAll(profiles);
+    }
+
+    /**
+     * List camera profiles in root folder and its sub folders
+     */
+    private List<String> scan()
+    {
+        List<String> profiles = new ArrayList<String>();
+
+        try
+        {
+            this.walk(this.root, false, profiles);
+        }
+        catch (IOException e)
+        {
+            Aperture.LOGGER.error("Couldn't list camera profiles folder " + this.root, e);
+        }
+
+        Collections.sort(profiles);
+
+        return profiles;
+    }
+
+    /**
+     * Walk given folder, adding found camera profiles to given collection, 
+     * and optionally registering folders in the watch service. Folders are
+     * registered before they're listed, so no files are missed.
+     */
+    private void walk(Path start, boolean register, Collection<String> profiles) throws IOException
+    {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+            {
+                if (register)
+                {
+                    KEYS.put(dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), new Folder(ProfileIndex.this, dir));
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+            {
+                String name = ProfileIndex.this.getName(file);
+
+                if (name != null)
+                {
+                    profiles.add(name);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e)
+            {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Add camera profile at given path, if it's a camera profile
+     */
+    private void update(Path path)
+    {
+        String name = this.getName(path);
+
+        if (name != null && Files.isRegularFile(path))
+        {
+            this.profiles.add(name);
+        }
+    }
+
+    /**
+     * Remove camera profile at given path, or all camera profiles in a
+     * removed sub folder
+     */
+    private void remove(Path path)
+    {
+        String name = this.getName(path);
+
+        if (name != null)
+        {
+            this.profiles.remove(name);
+
+            return;
+        }
+
+        String prefix = this.root.relativize(path).toString().replace(File.separatorChar, '/') + "/";
+
+        this.profiles.removeIf((profile) -> profile.startsWith(prefix));
+    }
+
+    /**
+     * Get camera profile name of given path (relative to the root, and
+     * without extension), or {@code null} if it's not a camera profile
+     */
+    private String getName(Path path)
+    {
+        String filename = path.getFileName().toString();
+
+        if (!filename.endsWith(".json") || !path.startsWith(this.root))
+        {
+            return null;
+        }
+
+        String name = this.root.relativize(path).toString().replace(File.separatorChar, '/');
+
+        return name.substring(0, name.length() - 5);
+    }
+
+    /**
+     * Watched folder of an index
+     */
+    private static class Folder
+    {
+        public final ProfileIndex index;
+        public final Path path;
+
+        public Folder(ProfileIndex index, Path path)
+        {
+            this.index = index;
+            this.path = path;
+        }
+    }
+}
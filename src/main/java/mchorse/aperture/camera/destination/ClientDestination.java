@@ -2,11 +2,12 @@ package mchorse.aperture.camera.destination;
 
 import java.io.File;
 
-import org.apache.commons.io.FileUtils;
-
 import mchorse.aperture.ClientProxy;
+import mchorse.aperture.camera.CameraFormat;
+import mchorse.aperture.camera.CameraIO;
 import mchorse.aperture.camera.CameraProfile;
-import mchorse.aperture.camera.CameraUtils;
+import mchorse.aperture.camera.ProfileHeader;
+import mchorse.aperture.camera.ProfileIndex;
 import mchorse.aperture.utils.L10n;
 import net.minecraft.client.Minecraft;
 import net.minecraft.util.ResourceLocation;
@@ -29,6 +30,14 @@ public class ClientDestination extends AbstractDestination
         return super.equals(obj) && obj instanceof ClientDestination;
     }
 
+    /**
+     * Get file of this camera profile
+     */
+    public File getFile()
+    {
+        return new File(ClientProxy.getClientCameras(), this.filename + ".json");
+    }
+
     @Override
     public void rename(String name)
     {
@@ -37,50 +46,89 @@ public class ClientDestination extends AbstractDestination
 
         if (from.renameTo(to))
         {
+            ProfileHeader.rename(from, to);
+            ProfileIndex.removed(from);
+            ProfileIndex.added(to);
             ClientProxy.getCameraEditor().profiles.rename(this, name);
         }
     }
 
+    /**
+     * Save camera profile. Camera profile gets encoded right away (since 
+     * it may be edited further), but it's written on the I/O thread.
+     */
     @Override
     public void save(CameraProfile profile)
     {
+        String filename = this.filename;
+
         try
         {
-            FileUtils.write(new File(ClientProxy.getClientCameras(), this.filename + ".json"), CameraUtils.toJSON(profile));
+            byte[] data = CameraFormat.encode(profile);
+            ProfileHeader header = ProfileHeader.fromProfile(profile);
 
-            L10n.success(Minecraft.getMinecraft().thePlayer, "profile.client_save", this.filename);
+            CameraIO.write(new File(ClientProxy.getClientCameras(), filename + ".json"), data, header, Minecraft.getMinecraft(), (file, error) ->
+            {
+                if (error != null)
+                {
+                    L10n.error(Minecraft.getMinecraft().thePlayer, "profile.client_cant_save", filename);
+                }
+                else
+                {
+                    L10n.success(Minecraft.getMinecraft().thePlayer, "profile.client_save", filename);
+                }
+            });
         }
         catch (Exception e)
         {
-            L10n.error(Minecraft.getMinecraft().thePlayer, "profile.client_cant_save", this.filename);
+            L10n.error(Minecraft.getMinecraft().thePlayer, "profile.client_cant_save", filename);
         }
     }
 
     @Override
     public void load()
     {
-        try
+        this.load(null);
+    }
+
+    /**
+     * Load camera profile on the I/O thread. Given callback gets invoked 
+     * on the main thread once loading is finished (whether camera 
+     * profile was loaded or not).
+     */
+    public void load(Runnable callback)
+    {
+        CameraIO.read(new File(ClientProxy.getClientCameras(), this.filename + ".json"), Minecraft.getMinecraft(), (newProfile, error) ->
         {
-            String json = FileUtils.readFileToString(new File(ClientProxy.getClientCameras(), this.filename + ".json"));
-            CameraProfile newProfile = CameraUtils.cameraJSONBuilder(false).fromJson(json, CameraProfile.class);
+            if (error != null)
+            {
+                L10n.error(Minecraft.getMinecraft().thePlayer, "profile.client_cant_load", this.filename);
+            }
+            else
+            {
+                newProfile.setDestination(this);
+                newProfile.dirty = false;
 
-            newProfile.setDestination(this);
-            newProfile.dirty = false;
+                ClientProxy.control.addProfile(newProfile);
 
-            ClientProxy.control.addProfile(newProfile);
+                L10n.success(Minecraft.getMinecraft().thePlayer, "profile.client_load", this.filename);
+            }
 
-            L10n.success(Minecraft.getMinecraft().thePlayer, "profile.client_load", this.filename);
-        }
-        catch (Exception e)
-        {
-            L10n.error(Minecraft.getMinecraft().thePlayer, "profile.client_cant_load", this.filename);
-        }
+            if (callback != null)
+            {
+                callback.run();
+            }
+        });
     }
 
     @Override
     public void remove()
     {
-        new File(ClientProxy.getClientCameras(), this.filename + ".json").delete();
+        File file = new File(ClientProxy.getClientCameras(), this.filename + ".json");
+
+        file.delete();
+        ProfileHeader.remove(file);
+        ProfileIndex.removed(file);
     }
 
     @Override
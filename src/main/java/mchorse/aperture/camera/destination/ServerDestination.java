@@ -3,6 +3,7 @@ package mchorse.aperture.camera.destination;
 import mchorse.aperture.camera.CameraProfile;
 import mchorse.aperture.network.Dispatcher;
 import mchorse.aperture.network.common.PacketCameraProfile;
+import mchorse.aperture.network.common.PacketCameraProfileDelta;
 import mchorse.aperture.network.common.PacketLoadCameraProfile;
 import mchorse.aperture.network.common.PacketRemoveCameraProfile;
 import mchorse.aperture.network.common.PacketRenameCameraProfile;
@@ -11,7 +12,9 @@ import net.minecraft.util.ResourceLocation;
 /**
  * Server destination
  * 
- * Saves and reloads camera profile from server's world.
+ * Saves and reloads camera profile from server's world. Once camera 
+ * profile was synchronized with the server, only changed fixtures are 
+ * sent when it's saved (see {@link PacketCameraProfileDelta}).
  */
 public class ServerDestination extends AbstractDestination
 {
@@ -34,8 +37,34 @@ public class ServerDestination extends AbstractDestination
 
     @Override
     public void save(CameraProfile profile)
+    {
+        long[] synced = profile.getSynced();
+
+        if (synced != null)
+        {
+            long[] hashes = profile.getFixtureHashes();
+            PacketCameraProfileDelta delta = new PacketCameraProfileDelta(this.filename, profile, synced, hashes);
+
+            /* Delta doesn't make sense when every fixture was changed */
+            if (delta.references > 0 || hashes.length == 0)
+            {
+                Dispatcher.sendToServer(delta);
+                profile.markSynced(hashes);
+
+                return;
+            }
+        }
+
+        this.saveFull(profile);
+    }
+
+    /**
+     * Send the whole camera profile to the server
+     */
+    public void saveFull(CameraProfile profile)
     {
         Dispatcher.sendToServer(new PacketCameraProfile(this.filename, profile));
+        profile.markSynced();
     }
 
     @Override
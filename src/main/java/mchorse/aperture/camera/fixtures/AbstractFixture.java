@@ -45,6 +45,11 @@ public abstract class AbstractFixture
     @Expose
     protected List<AbstractModifier> modifiers = new ArrayList<AbstractModifier>();
 
+    /**
+     * Cached position of this fixture at the first tick 
+     */
+    private Position origin;
+
     /**
      * Copy given fixture's modifiers to another fixture 
      */
@@ -112,6 +117,39 @@ public abstract class AbstractFixture
     public void fromPlayer(EntityPlayer player)
     {}
 
+    /**
+     * Pack fixture's data into compact form. It's called when the camera 
+     * editor gets closed, since there is no need to keep the data in 
+     * editable form afterwards
+     */
+    public void pack()
+    {}
+
+    /**
+     * Invalidate data which was cached for playback. It's called when 
+     * camera profile gets marked dirty, i.e. when fixture was edited
+     */
+    public void invalidate()
+    {
+        this.origin = null;
+    }
+
+    /**
+     * Get position of this fixture at the first tick. It's used by 
+     * entity modifiers as a reference point, so it's cached until this 
+     * fixture gets invalidated
+     */
+    public Position getOrigin(CameraProfile profile)
+    {
+        if (this.origin == null)
+        {
+            this.origin = new Position(0, 0, 0, 0, 0);
+            this.applyFixture(0, 0, profile, this.origin);
+        }
+
+        return this.origin;
+    }
+
     /* JSON (de)serialization methods */
 
     public void fromJSON(JsonObject object)
@@ -202,8 +240,19 @@ public abstract class AbstractFixture
      */
     public void applyModifiers(long ticks, long offset, float partialTick, CameraProfile profile, Position pos)
     {
-        for (AbstractModifier modifier : this.modifiers)
+        this.applyModifiers(ticks, offset, partialTick, profile, pos, 0, this.modifiers.size());
+    }
+
+    /**
+     * Apply camera modifiers from given index (inclusive) to given index 
+     * (exclusive)
+     */
+    public void applyModifiers(long ticks, long offset, float partialTick, CameraProfile profile, Position pos, int from, int to)
+    {
+        for (int i = from; i < to; i++)
         {
+            AbstractModifier modifier = this.modifiers.get(i);
+
             if (modifier.enabled)
             {
                 modifier.modify(ticks, offset, this, partialTick, profile, pos);
@@ -211,6 +260,35 @@ public abstract class AbstractFixture
         }
     }
 
+    /**
+     * Whether this fixture's output depends on the state of the world, 
+     * and therefore can't be baked
+     */
+    public boolean isLive(CameraProfile profile)
+    {
+        return false;
+    }
+
+    /**
+     * Get index of the first enabled live modifier (see 
+     * {@link AbstractModifier#isLive()}), or the amount of modifiers if 
+     * there are no live modifiers
+     */
+    public int getLiveIndex()
+    {
+        for (int i = 0, c = this.modifiers.size(); i < c; i++)
+        {
+            AbstractModifier modifier = this.modifiers.get(i);
+
+            if (modifier.enabled && modifier.isLive())
+            {
+                return i;
+            }
+        }
+
+        return this.modifiers.size();
+    }
+
     /**
      * Get modifiers 
      */
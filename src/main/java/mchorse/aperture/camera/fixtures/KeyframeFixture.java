@@ -1,12 +1,19 @@
 package mchorse.aperture.camera.fixtures;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import io.netty.buffer.ByteBuf;
 import mchorse.aperture.camera.CameraProfile;
@@ -52,13 +59,13 @@ public class KeyframeFixture extends AbstractFixture
     {
         super(0);
 
-        this.x = new KeyframeChannel();
-        this.y = new KeyframeChannel();
-        this.z = new KeyframeChannel();
-        this.yaw = new KeyframeChannel();
-        this.pitch = new KeyframeChannel();
-        this.roll = new KeyframeChannel();
-        this.fov = new KeyframeChannel();
+        this.x = new PackedKeyframeChannel();
+        this.y = new PackedKeyframeChannel();
+        this.z = new PackedKeyframeChannel();
+        this.yaw = new PackedKeyframeChannel();
+        this.pitch = new PackedKeyframeChannel();
+        this.roll = new PackedKeyframeChannel();
+        this.fov = new PackedKeyframeChannel();
         this.channels = new KeyframeChannel[] {this.x, this.y, this.z, this.yaw, this.pitch, this.roll, this.fov};
     }
 
@@ -66,13 +73,13 @@ public class KeyframeFixture extends AbstractFixture
     {
         super(duration);
 
-        this.x = new KeyframeChannel();
-        this.y = new KeyframeChannel();
-        this.z = new KeyframeChannel();
-        this.yaw = new KeyframeChannel();
-        this.pitch = new KeyframeChannel();
-        this.roll = new KeyframeChannel();
-        this.fov = new KeyframeChannel();
+        this.x = new PackedKeyframeChannel();
+        this.y = new PackedKeyframeChannel();
+        this.z = new PackedKeyframeChannel();
+        this.yaw = new PackedKeyframeChannel();
+        this.pitch = new PackedKeyframeChannel();
+        this.roll = new PackedKeyframeChannel();
+        this.fov = new PackedKeyframeChannel();
         this.channels = new KeyframeChannel[] {this.x, this.y, this.z, this.yaw, this.pitch, this.roll, this.fov};
     }
 
@@ -122,9 +129,21 @@ public class KeyframeFixture extends AbstractFixture
         return fixture;
     }
 
+    @Override
+    public void pack()
+    {
+        for (KeyframeChannel channel : this.channels)
+        {
+            channel.pack();
+        }
+    }
+
     @Override
     public void fromJSON(JsonObject object)
     {
+        /* Channels were replaced by deserialized ones */
+        this.channels = new KeyframeChannel[] {this.x, this.y, this.z, this.yaw, this.pitch, this.roll, this.fov};
+
         this.x.sort();
         this.y.sort();
         this.z.sort();
@@ -173,6 +192,12 @@ public class KeyframeFixture extends AbstractFixture
         @Expose
         protected final List<Keyframe> keyframes = new ArrayList<Keyframe>();
 
+        /**
+         * Index of the keyframe segment which was used during last 
+         * interpolation 
+         */
+        protected int cursor;
+
         protected Keyframe create(long tick, float value)
         {
             return new Keyframe(tick, value);
@@ -228,19 +253,63 @@ public class KeyframeFixture extends AbstractFixture
                 return prev.value;
             }
 
-            prev = null;
+            int index = this.findSegment(ticks);
 
-            for (Keyframe frame : this.keyframes)
+            if (index >= this.keyframes.size() - 1)
             {
-                if (prev != null && ticks >= prev.tick && ticks < frame.tick)
+                return this.keyframes.get(this.keyframes.size() - 1).value;
+            }
+
+            prev = this.keyframes.get(index);
+            Keyframe frame = this.keyframes.get(index + 1);
+
+            return prev.interpolate(frame, (ticks - prev.tick) / (frame.tick - prev.tick));
+        }
+
+        /**
+         * Find the index of the last keyframe which is located at or before 
+         * given tick. It's assumed that given tick isn't before the first 
+         * keyframe.
+         * 
+         * Since this method is usually called with increasing ticks 
+         * (playback or graph rendering), last found segment and the one 
+         * after it are checked first before falling back to binary search.
+         */
+        protected int findSegment(float ticks)
+        {
+            int size = this.keyframes.size();
+            int cursor = this.cursor;
+
+            for (int i = cursor; i < cursor + 2 && i < size - 1; i++)
+            {
+                if (ticks >= this.keyframes.get(i).tick && ticks < this.keyframes.get(i + 1).tick)
                 {
-                    return prev.interpolate(frame, (ticks - prev.tick) / (frame.tick - prev.tick));
+                    this.cursor = i;
+
+                    return i;
                 }
+            }
+
+            int low = 0;
+            int high = size - 1;
+
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
 
-                prev = frame;
+                if (this.keyframes.get(mid).tick <= ticks)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
             }
 
-            return prev.value;
+            this.cursor = Math.max(low - 1, 0);
+
+            return low - 1;
         }
 
         /**
@@ -254,51 +323,58 @@ public class KeyframeFixture extends AbstractFixture
          */
         public int insert(long tick, float value)
         {
-            Keyframe prev = null;
+            /* Binary search of first keyframe which is at or after given tick */
+            int low = 0;
+            int high = this.keyframes.size() - 1;
 
-            if (!this.keyframes.isEmpty())
+            while (low <= high)
             {
-                prev = this.keyframes.get(0);
+                int mid = (low + high) >>> 1;
 
-                if (tick < prev.tick)
+                if (this.keyframes.get(mid).tick < tick)
                 {
-                    this.keyframes.add(0, this.create(tick, value));
-
-                    return 0;
+                    low = mid + 1;
                 }
-            }
-
-            prev = null;
-            int index = 0;
-
-            for (Keyframe frame : this.keyframes)
-            {
-                if (frame.tick == tick)
+                else
                 {
-                    frame.value = value;
-
-                    return index;
+                    high = mid - 1;
                 }
+            }
 
-                if (prev != null && tick > prev.tick && tick < frame.tick)
-                {
-                    break;
-                }
+            if (low < this.keyframes.size() && this.keyframes.get(low).tick == tick)
+            {
+                this.keyframes.get(low).value = value;
 
-                index++;
-                prev = frame;
+                return low;
             }
 
             Keyframe frame = this.create(tick, value);
-            this.keyframes.add(index, frame);
 
-            if (this.keyframes.size() > 1)
+            this.keyframes.add(low, frame);
+            this.link(low);
+
+            return low;
+        }
+
+        /**
+         * Link keyframe at given index with its neighbours
+         */
+        protected void link(int index)
+        {
+            Keyframe frame = this.keyframes.get(index);
+
+            frame.prev = index > 0 ? this.keyframes.get(index - 1) : frame;
+            frame.next = index < this.keyframes.size() - 1 ? this.keyframes.get(index + 1) : frame;
+
+            if (frame.prev != frame)
             {
-                frame.prev = this.keyframes.get(Math.max(index - 1, 0));
-                frame.next = this.keyframes.get(Math.min(index + 1, this.keyframes.size() - 1));
+                frame.prev.next = frame;
             }
 
-            return index;
+            if (frame.next != frame)
+            {
+                frame.next.prev = frame;
+            }
         }
 
         /**
@@ -334,11 +410,18 @@ public class KeyframeFixture extends AbstractFixture
             }
         }
 
+        /**
+         * Pack keyframes into compact representation. Object-based channel 
+         * doesn't have one, so it does nothing.
+         */
+        public void pack()
+        {}
+
         public void copy(KeyframeChannel channel)
         {
             this.keyframes.clear();
 
-            for (Keyframe frame : channel.keyframes)
+            for (Keyframe frame : channel.getKeyframes())
             {
                 this.keyframes.add(frame.clone());
             }
@@ -370,6 +453,695 @@ public class KeyframeFixture extends AbstractFixture
                 frame.toByteBuf(buffer);
             }
         }
+
+        public void fromJSON(JsonObject object)
+        {
+            this.keyframes.clear();
+
+            if (object.has("keyframes") && object.get("keyframes").isJsonArray())
+            {
+                for (JsonElement element : object.getAsJsonArray("keyframes"))
+                {
+                    Keyframe frame = this.create(0, 0);
+
+                    frame.fromJSON(element.getAsJsonObject());
+                    this.keyframes.add(frame);
+                }
+            }
+
+            this.sort();
+        }
+
+        public void toJSON(JsonObject object)
+        {
+            JsonArray array = new JsonArray();
+
+            for (Keyframe frame : this.keyframes)
+            {
+                JsonObject keyframe = new JsonObject();
+
+                frame.toJSON(keyframe);
+                array.add(keyframe);
+            }
+
+            object.add("keyframes", array);
+        }
+
+        /**
+         * Read keyframes straight from JSON stream
+         */
+        public void fromJSON(JsonReader reader) throws IOException
+        {
+            this.keyframes.clear();
+
+            reader.beginObject();
+
+            while (reader.hasNext())
+            {
+                if (reader.nextName().equals("keyframes") && reader.peek() == JsonToken.BEGIN_ARRAY)
+                {
+                    reader.beginArray();
+
+                    while (reader.hasNext())
+                    {
+                        Keyframe frame = this.create(0, 0);
+
+                        frame.fromJSON(reader);
+                        this.keyframes.add(frame);
+                    }
+
+                    reader.endArray();
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+
+            this.sort();
+        }
+
+        /**
+         * Write keyframes straight to JSON stream
+         */
+        public void toJSON(JsonWriter writer) throws IOException
+        {
+            writer.beginObject();
+            writer.name("keyframes").beginArray();
+
+            for (Keyframe frame : this.keyframes)
+            {
+                frame.toJSON(writer);
+            }
+
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+
+    /**
+     * Packed keyframe channel
+     * 
+     * This keyframe channel stores keyframes in parallel primitive arrays 
+     * instead of separate keyframe objects, which takes much less memory 
+     * for long keyframed shots and keeps lookups during interpolation 
+     * cache-friendly.
+     * 
+     * {@link Keyframe} views are created only when they're requested via 
+     * {@link #getKeyframes()} or {@link #get(int)} (i.e. by the GUI). 
+     * While the views exist, this channel works just like the object-based 
+     * channel, and {@link #pack()} folds them back into the arrays.
+     */
+    public static class PackedKeyframeChannel extends KeyframeChannel
+    {
+        private static final Interpolation[] INTERPOLATIONS = Interpolation.values();
+        private static final Easing[] EASINGS = Easing.values();
+
+        protected int size;
+        protected long[] ticks = new long[0];
+        protected float[] values = new float[0];
+        protected byte[] interps = new byte[0];
+        protected byte[] easings = new byte[0];
+        protected float[] rx = new float[0];
+        protected float[] ry = new float[0];
+        protected float[] lx = new float[0];
+        protected float[] ly = new float[0];
+
+        /**
+         * Whether keyframes are currently stored as keyframe views in the 
+         * list instead of the arrays
+         */
+        protected boolean expanded;
+
+        /* Reusable keyframes which are used to interpolate packed keyframes 
+         * without allocating new ones */
+        private final Keyframe a = new Keyframe(0, 0);
+        private final Keyframe b = new Keyframe(0, 0);
+        private final Keyframe before = new Keyframe(0, 0);
+        private final Keyframe after = new Keyframe(0, 0);
+
+        public PackedKeyframeChannel()
+        {
+            this.a.prev = this.before;
+            this.a.next = this.b;
+            this.b.prev = this.a;
+            this.b.next = this.after;
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return this.expanded ? super.isEmpty() : this.size == 0;
+        }
+
+        @Override
+        public List<Keyframe> getKeyframes()
+        {
+            this.expand();
+
+            return super.getKeyframes();
+        }
+
+        @Override
+        public boolean has(int index)
+        {
+            return this.expanded ? super.has(index) : index >= 0 && index < this.size;
+        }
+
+        @Override
+        public Keyframe get(int index)
+        {
+            if (!this.has(index))
+            {
+                return null;
+            }
+
+            this.expand();
+
+            return super.get(index);
+        }
+
+        @Override
+        public void remove(int index)
+        {
+            if (this.expanded)
+            {
+                super.remove(index);
+
+                return;
+            }
+
+            if (index < 0 || index >= this.size)
+            {
+                return;
+            }
+
+            this.move(index + 1, index, this.size - index - 1);
+            this.size--;
+        }
+
+        @Override
+        public float interpolate(float ticks)
+        {
+            if (this.expanded)
+            {
+                return super.interpolate(ticks);
+            }
+
+            if (this.size == 0)
+            {
+                return 0;
+            }
+
+            if (ticks < this.ticks[0])
+            {
+                return this.values[0];
+            }
+
+            int index = this.findSegment(ticks);
+
+            if (index >= this.size - 1)
+            {
+                return this.values[this.size - 1];
+            }
+
+            this.load(this.a, index);
+            this.load(this.b, index + 1);
+            this.before.value = this.values[Math.max(index - 1, 0)];
+            this.after.value = this.values[Math.min(index + 2, this.size - 1)];
+
+            return this.a.interpolate(this.b, (ticks - this.a.tick) / (this.b.tick - this.a.tick));
+        }
+
+        @Override
+        protected int findSegment(float ticks)
+        {
+            if (this.expanded)
+            {
+                return super.findSegment(ticks);
+            }
+
+            long[] array = this.ticks;
+            int size = this.size;
+            int cursor = this.cursor;
+
+            for (int i = cursor; i < cursor + 2 && i < size - 1; i++)
+            {
+                if (ticks >= array[i] && ticks < array[i + 1])
+                {
+                    this.cursor = i;
+
+                    return i;
+                }
+            }
+
+            int low = 0;
+            int high = size - 1;
+
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+
+                if (array[mid] <= ticks)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+
+            this.cursor = Math.max(low - 1, 0);
+
+            return low - 1;
+        }
+
+        @Override
+        public int insert(long tick, float value)
+        {
+            if (this.expanded)
+            {
+                return super.insert(tick, value);
+            }
+
+            int low = 0;
+            int high = this.size - 1;
+
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+
+                if (this.ticks[mid] < tick)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+
+            if (low < this.size && this.ticks[low] == tick)
+            {
+                this.values[low] = value;
+
+                return low;
+            }
+
+            this.ensureCapacity(this.size + 1);
+            this.move(low, low + 1, this.size - low);
+            this.size++;
+
+            this.ticks[low] = tick;
+            this.values[low] = value;
+            this.interps[low] = (byte) Interpolation.LINEAR.ordinal();
+            this.easings[low] = (byte) Easing.IN.ordinal();
+            this.rx[low] = 5;
+            this.ry[low] = 0;
+            this.lx[low] = 5;
+            this.ly[low] = 0;
+
+            return low;
+        }
+
+        @Override
+        public void sort()
+        {
+            if (this.expanded)
+            {
+                super.sort();
+
+                return;
+            }
+
+            /* Insertion sort, since keyframes are almost always sorted */
+            for (int i = 1; i < this.size; i++)
+            {
+                for (int j = i; j > 0 && this.ticks[j - 1] > this.ticks[j]; j--)
+                {
+                    this.swap(j - 1, j);
+                }
+            }
+        }
+
+        /**
+         * Fold keyframe views back into the arrays. Keyframe views which 
+         * were returned before calling this method will no longer affect 
+         * this channel.
+         */
+        @Override
+        public void pack()
+        {
+            if (!this.expanded)
+            {
+                return;
+            }
+
+            this.size = 0;
+            this.ensureCapacity(this.keyframes.size());
+
+            for (Keyframe frame : this.keyframes)
+            {
+                this.store(this.size++, frame);
+            }
+
+            this.keyframes.clear();
+            this.expanded = false;
+            this.cursor = 0;
+        }
+
+        /**
+         * Create keyframe views out of the arrays 
+         */
+        protected void expand()
+        {
+            if (this.expanded)
+            {
+                return;
+            }
+
+            this.keyframes.clear();
+
+            for (int i = 0; i < this.size; i++)
+            {
+                Keyframe frame = new Keyframe(0, 0);
+
+                this.load(frame, i);
+                this.keyframes.add(frame);
+            }
+
+            this.expanded = true;
+            this.cursor = 0;
+            super.sort();
+        }
+
+        @Override
+        public void copy(KeyframeChannel channel)
+        {
+            this.reset();
+
+            if (channel instanceof PackedKeyframeChannel && !((PackedKeyframeChannel) channel).expanded)
+            {
+                PackedKeyframeChannel packed = (PackedKeyframeChannel) channel;
+
+                this.ensureCapacity(packed.size);
+                this.size = packed.size;
+
+                System.arraycopy(packed.ticks, 0, this.ticks, 0, this.size);
+                System.arraycopy(packed.values, 0, this.values, 0, this.size);
+                System.arraycopy(packed.interps, 0, this.interps, 0, this.size);
+                System.arraycopy(packed.easings, 0, this.easings, 0, this.size);
+                System.arraycopy(packed.rx, 0, this.rx, 0, this.size);
+                System.arraycopy(packed.ry, 0, this.ry, 0, this.size);
+                System.arraycopy(packed.lx, 0, this.lx, 0, this.size);
+                System.arraycopy(packed.ly, 0, this.ly, 0, this.size);
+            }
+            else
+            {
+                List<Keyframe> keyframes = channel.getKeyframes();
+
+                this.ensureCapacity(keyframes.size());
+
+                for (Keyframe frame : keyframes)
+                {
+                    this.store(this.size++, frame);
+                }
+
+                this.sort();
+            }
+        }
+
+        @Override
+        public void fromByteBuf(ByteBuf buffer)
+        {
+            this.reset();
+
+            int count = buffer.readInt();
+
+            this.ensureCapacity(count);
+
+            for (int i = 0; i < count; i++)
+            {
+                this.ticks[i] = buffer.readLong();
+                this.values[i] = buffer.readFloat();
+                this.interps[i] = (byte) buffer.readInt();
+                this.easings[i] = (byte) buffer.readInt();
+                this.rx[i] = buffer.readFloat();
+                this.ry[i] = buffer.readFloat();
+                this.lx[i] = buffer.readFloat();
+                this.ly[i] = buffer.readFloat();
+            }
+
+            this.size = count;
+            this.sort();
+        }
+
+        @Override
+        public void toByteBuf(ByteBuf buffer)
+        {
+            if (this.expanded)
+            {
+                super.toByteBuf(buffer);
+
+                return;
+            }
+
+            buffer.writeInt(this.size);
+
+            for (int i = 0; i < this.size; i++)
+            {
+                buffer.writeLong(this.ticks[i]);
+                buffer.writeFloat(this.values[i]);
+                buffer.writeInt(this.interps[i]);
+                buffer.writeInt(this.easings[i]);
+                buffer.writeFloat(this.rx[i]);
+                buffer.writeFloat(this.ry[i]);
+                buffer.writeFloat(this.lx[i]);
+                buffer.writeFloat(this.ly[i]);
+            }
+        }
+
+        @Override
+        public void fromJSON(JsonObject object)
+        {
+            this.reset();
+
+            if (object.has("keyframes") && object.get("keyframes").isJsonArray())
+            {
+                JsonArray array = object.getAsJsonArray("keyframes");
+
+                this.ensureCapacity(array.size());
+
+                for (JsonElement element : array)
+                {
+                    Keyframe frame = new Keyframe(0, 0);
+
+                    frame.fromJSON(element.getAsJsonObject());
+                    this.store(this.size++, frame);
+                }
+            }
+
+            this.sort();
+        }
+
+        @Override
+        public void toJSON(JsonObject object)
+        {
+            if (this.expanded)
+            {
+                super.toJSON(object);
+
+                return;
+            }
+
+            JsonArray array = new JsonArray();
+            Keyframe frame = new Keyframe(0, 0);
+
+            for (int i = 0; i < this.size; i++)
+            {
+                JsonObject keyframe = new JsonObject();
+
+                this.load(frame, i);
+                frame.toJSON(keyframe);
+                array.add(keyframe);
+            }
+
+            object.add("keyframes", array);
+        }
+
+        @Override
+        public void fromJSON(JsonReader reader) throws IOException
+        {
+            this.reset();
+
+            reader.beginObject();
+
+            while (reader.hasNext())
+            {
+                if (reader.nextName().equals("keyframes") && reader.peek() == JsonToken.BEGIN_ARRAY)
+                {
+                    reader.beginArray();
+
+                    while (reader.hasNext())
+                    {
+                        Keyframe frame = new Keyframe(0, 0);
+
+                        frame.fromJSON(reader);
+                        this.ensureCapacity(this.size + 1);
+                        this.store(this.size++, frame);
+                    }
+
+                    reader.endArray();
+                }
+                else
+                {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+
+            this.sort();
+        }
+
+        @Override
+        public void toJSON(JsonWriter writer) throws IOException
+        {
+            if (this.expanded)
+            {
+                super.toJSON(writer);
+
+                return;
+            }
+
+            Keyframe frame = new Keyframe(0, 0);
+
+            writer.beginObject();
+            writer.name("keyframes").beginArray();
+
+            for (int i = 0; i < this.size; i++)
+            {
+                this.load(frame, i);
+                frame.toJSON(writer);
+            }
+
+            writer.endArray();
+            writer.endObject();
+        }
+
+        /**
+         * Remove all keyframes and views 
+         */
+        protected void reset()
+        {
+            this.keyframes.clear();
+            this.expanded = false;
+            this.size = 0;
+            this.cursor = 0;
+        }
+
+        /**
+         * Copy packed keyframe at given index into given keyframe 
+         */
+        protected void load(Keyframe frame, int index)
+        {
+            frame.tick = this.ticks[index];
+            frame.value = this.values[index];
+            frame.interp = INTERPOLATIONS[this.interps[index]];
+            frame.easing = EASINGS[this.easings[index]];
+            frame.rx = this.rx[index];
+            frame.ry = this.ry[index];
+            frame.lx = this.lx[index];
+            frame.ly = this.ly[index];
+        }
+
+        /**
+         * Copy given keyframe into the arrays at given index 
+         */
+        protected void store(int index, Keyframe frame)
+        {
+            this.ticks[index] = frame.tick;
+            this.values[index] = frame.value;
+            this.interps[index] = (byte) frame.interp.ordinal();
+            this.easings[index] = (byte) frame.easing.ordinal();
+            this.rx[index] = frame.rx;
+            this.ry[index] = frame.ry;
+            this.lx[index] = frame.lx;
+            this.ly[index] = frame.ly;
+        }
+
+        /**
+         * Make sure that the arrays can hold given amount of keyframes 
+         */
+        protected void ensureCapacity(int capacity)
+        {
+            if (capacity <= this.ticks.length)
+            {
+                return;
+            }
+
+            capacity = Math.max(capacity, Math.max(this.ticks.length * 2, 4));
+
+            this.ticks = Arrays.copyOf(this.ticks, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.interps = Arrays.copyOf(this.interps, capacity);
+            this.easings = Arrays.copyOf(this.easings, capacity);
+            this.rx = Arrays.copyOf(this.rx, capacity);
+            this.ry = Arrays.copyOf(this.ry, capacity);
+            this.lx = Arrays.copyOf(this.lx, capacity);
+            this.ly = Arrays.copyOf(this.ly, capacity);
+        }
+
+        /**
+         * Move a range of keyframes in the arrays 
+         */
+        private void move(int from, int to, int count)
+        {
+            System.arraycopy(this.ticks, from, this.ticks, to, count);
+            System.arraycopy(this.values, from, this.values, to, count);
+            System.arraycopy(this.interps, from, this.interps, to, count);
+            System.arraycopy(this.easings, from, this.easings, to, count);
+            System.arraycopy(this.rx, from, this.rx, to, count);
+            System.arraycopy(this.ry, from, this.ry, to, count);
+            System.arraycopy(this.lx, from, this.lx, to, count);
+            System.arraycopy(this.ly, from, this.ly, to, count);
+        }
+
+        /**
+         * Swap two keyframes in the arrays 
+         */
+        private void swap(int i, int j)
+        {
+            long tick = this.ticks[i];
+            float value = this.values[i];
+            byte interp = this.interps[i];
+            byte easing = this.easings[i];
+            float rx = this.rx[i];
+            float ry = this.ry[i];
+            float lx = this.lx[i];
+            float ly = this.ly[i];
+
+            this.ticks[i] = this.ticks[j];
+            this.values[i] = this.values[j];
+            this.interps[i] = this.interps[j];
+            this.easings[i] = this.easings[j];
+            this.rx[i] = this.rx[j];
+            this.ry[i] = this.ry[j];
+            this.lx[i] = this.lx[j];
+            this.ly[i] = this.ly[j];
+
+            this.ticks[j] = tick;
+            this.values[j] = value;
+            this.interps[j] = interp;
+            this.easings[j] = easing;
+            this.rx[j] = rx;
+            this.ry[j] = ry;
+            this.lx[j] = lx;
+            this.ly[j] = ly;
+        }
     }
 
     /**
@@ -462,6 +1234,66 @@ public class KeyframeFixture extends AbstractFixture
             this.ly = buffer.readFloat();
         }
 
+        public void fromJSON(JsonObject object)
+        {
+            if (object.has("tick")) this.tick = object.get("tick").getAsLong();
+            if (object.has("value")) this.value = object.get("value").getAsFloat();
+            if (object.has("interp")) this.interp = Interpolation.valueOf(object.get("interp").getAsString());
+            if (object.has("easing")) this.easing = Easing.valueOf(object.get("easing").getAsString());
+            if (object.has("rx")) this.rx = object.get("rx").getAsFloat();
+            if (object.has("ry")) this.ry = object.get("ry").getAsFloat();
+            if (object.has("lx")) this.lx = object.get("lx").getAsFloat();
+            if (object.has("ly")) this.ly = object.get("ly").getAsFloat();
+        }
+
+        public void toJSON(JsonObject object)
+        {
+            object.addProperty("tick", this.tick);
+            object.addProperty("value", this.value);
+            object.addProperty("interp", this.interp.name());
+            object.addProperty("easing", this.easing.name());
+            object.addProperty("rx", this.rx);
+            object.addProperty("ry", this.ry);
+            object.addProperty("lx", this.lx);
+            object.addProperty("ly", this.ly);
+        }
+
+        public void fromJSON(JsonReader reader) throws IOException
+        {
+            reader.beginObject();
+
+            while (reader.hasNext())
+            {
+                String name = reader.nextName();
+
+                if (name.equals("tick")) this.tick = reader.nextLong();
+                else if (name.equals("value")) this.value = (float) reader.nextDouble();
+                else if (name.equals("interp")) this.interp = Interpolation.valueOf(reader.nextString());
+                else if (name.equals("easing")) this.easing = Easing.valueOf(reader.nextString());
+                else if (name.equals("rx")) this.rx = (float) reader.nextDouble();
+                else if (name.equals("ry")) this.ry = (float) reader.nextDouble();
+                else if (name.equals("lx")) this.lx = (float) reader.nextDouble();
+                else if (name.equals("ly")) this.ly = (float) reader.nextDouble();
+                else reader.skipValue();
+            }
+
+            reader.endObject();
+        }
+
+        public void toJSON(JsonWriter writer) throws IOException
+        {
+            writer.beginObject();
+            writer.name("tick").value(this.tick);
+            writer.name("value").value(Float.valueOf(this.value));
+            writer.name("interp").value(this.interp.name());
+            writer.name("easing").value(this.easing.name());
+            writer.name("rx").value(Float.valueOf(this.rx));
+            writer.name("ry").value(Float.valueOf(this.ry));
+            writer.name("lx").value(Float.valueOf(this.lx));
+            writer.name("ly").value(Float.valueOf(this.ly));
+            writer.endObject();
+        }
+
         public void toByteBuf(ByteBuf buffer)
         {
             buffer.writeLong(this.tick);
@@ -41,6 +41,19 @@ public class NullFixture extends AbstractFixture
         }
     }
 
+    @Override
+    public boolean isLive(CameraProfile profile)
+    {
+        AbstractFixture fixture = profile.get(profile.getAll().indexOf(this) + (this.previous ? -1 : 1));
+
+        if (fixture == null || fixture instanceof NullFixture)
+        {
+            return false;
+        }
+
+        return fixture.isLive(profile) || fixture.getLiveIndex() < fixture.getModifiers().size();
+    }
+
     @Override
     public AbstractFixture clone()
     {
@@ -13,6 +13,7 @@ import mchorse.aperture.camera.data.Angle;
 import mchorse.aperture.camera.data.Point;
 import mchorse.aperture.camera.data.Position;
 import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.PackedKeyframeChannel;
 import mchorse.mclib.utils.Interpolations;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.math.MathHelper;
@@ -24,6 +25,12 @@ import net.minecraft.util.math.MathHelper;
  */
 public class PathFixture extends AbstractFixture
 {
+    /**
+     * How many samples per segment are used to approximate the length of 
+     * the path 
+     */
+    public static final int LENGTH_SAMPLES = 32;
+
     /**
      * Whether per point duration is active 
      */
@@ -52,7 +59,19 @@ public class PathFixture extends AbstractFixture
     public InterpolationType interpolationAngle;
 
     /* Speed related cache data */
-    private float lastTick;
+
+    /**
+     * Cumulative length of the path, sampled {@link #LENGTH_SAMPLES} 
+     * times per segment. It's calculated when the points were changed
+     */
+    private float[] lengths;
+
+    /**
+     * Cumulative sum of the speed at the start of every tick. It's 
+     * calculated when the speed was changed
+     */
+    private float[] distances;
+
     private Point lastPoint = new Point(0, 0, 0);
     private Point tmpPoint = new Point(0, 0, 0);
 
@@ -60,7 +79,7 @@ public class PathFixture extends AbstractFixture
     {
         super(0);
 
-        this.speed = new KeyframeChannel();
+        this.speed = new PackedKeyframeChannel();
     }
 
     public PathFixture(long duration)
@@ -71,7 +90,7 @@ public class PathFixture extends AbstractFixture
 
         this.interpolationPos = type;
         this.interpolationAngle = type;
-        this.speed = new KeyframeChannel();
+        this.speed = new PackedKeyframeChannel();
         this.speed.insert(0, 1);
     }
 
@@ -113,26 +132,31 @@ public class PathFixture extends AbstractFixture
     public void addPoint(DurablePosition point)
     {
         this.points.add(point);
+        this.invalidate();
     }
 
     public void addPoint(DurablePosition point, int before)
     {
         this.points.add(before, point);
+        this.invalidate();
     }
 
     public void movePoint(int from, int to)
     {
         this.points.add(to, this.points.remove(from));
+        this.invalidate();
     }
 
     public void editPoint(DurablePosition point, int index)
     {
         this.points.set(index, point);
+        this.invalidate();
     }
 
     public void removePoint(int index)
     {
         this.points.remove(index);
+        this.invalidate();
     }
 
     @Override
@@ -217,6 +241,21 @@ public class PathFixture extends AbstractFixture
         this.addPoint(new DurablePosition(player));
     }
 
+    @Override
+    public void pack()
+    {
+        this.speed.pack();
+    }
+
+    @Override
+    public void invalidate()
+    {
+        super.invalidate();
+
+        this.lengths = null;
+        this.distances = null;
+    }
+
     @Override
     public void applyFixture(long ticks, float partialTicks, CameraProfile profile, Position pos)
     {
@@ -227,6 +266,16 @@ public class PathFixture extends AbstractFixture
             return;
         }
 
+        if (this.interpolationPos == null)
+        {
+            this.interpolationPos = InterpolationType.LINEAR;
+        }
+
+        if (this.interpolationAngle == null)
+        {
+            this.interpolationAngle = InterpolationType.LINEAR;
+        }
+
         int length = this.points.size() - 1;
         int index = 0;
         float x = 0;
@@ -281,21 +330,7 @@ public class PathFixture extends AbstractFixture
         /* If use speed is enabled */
         if (this.useSpeed)
         {
-            float tick = ticks + partialTicks;
-
-            /* Just calculate enough for the speed for the difference */
-            if (tick != this.lastTick)
-            {
-                this.applyPoint(this.lastPoint, 0, 0);
-                this.recalculate(tick, pos.angle);
-                pos.point.set(this.lastPoint.x, this.lastPoint.y, this.lastPoint.z);
-            }
-            else
-            {
-                pos.point.set(this.lastPoint.x, this.lastPoint.y, this.lastPoint.z);
-            }
-
-            this.lastTick = tick;
+            this.applySpeed(ticks + partialTicks, pos);
         }
         else
         {
@@ -305,91 +340,125 @@ public class PathFixture extends AbstractFixture
     }
 
     /**
-     * Recalculate speed based thing
+     * Apply position at given tick based on the speed
+     * 
+     * Distance which must be traveled by given tick is taken from cached 
+     * distance table, and then the position on the path at that distance 
+     * is looked up in cached length table by binary search.
      */
-    private void recalculate(float tick, Angle angle)
+    private void applySpeed(float tick, Position pos)
     {
-        /* Calculate the distance which must be reached */
-        float target = 0F;
-
-        for (int i = 0, c = (int) tick; i < c; i++)
+        if (this.lengths == null)
         {
-            target += this.speed.interpolate(i);
+            this.calculateLengths();
         }
 
-        target += this.speed.interpolate(tick) * (tick % 1);
-        target /= 20F;
-
-        /* Try to calculate the actual distance traveled */
-        int index = 0;
-        float progress = 0;
-        float distance = 0;
-        float factor = 0.1F;
-        float diff = Math.abs(target - distance);
+        float target = this.getDistance(tick);
+        float[] lengths = this.lengths;
+        int last = lengths.length - 1;
+        float x = 0;
 
-        while (diff > 0.00005F)
+        if (last > 0 && target >= lengths[last])
         {
-            progress += factor;
+            x = last;
+        }
+        else if (last > 0 && target > 0)
+        {
+            /* Find the last sample which is located at or before the target */
+            int low = 0;
+            int high = last;
 
-            if (factor == 0 || Math.abs(factor) < 0.0000001F)
+            while (low <= high)
             {
-                this.applyPoint(this.lastPoint, index, progress);
-                this.applyAngle(angle, index, progress);
-
-                return;
-            }
+                int mid = (low + high) >>> 1;
 
-            if (progress > 1)
-            {
-                if (index >= this.points.size() - 1)
+                if (lengths[mid] <= target)
                 {
-                    this.applyPoint(this.lastPoint, index, 1);
-                    this.applyAngle(angle, index, progress);
-
-                    break;
+                    low = mid + 1;
                 }
                 else
                 {
-                    progress = progress % 1;
-                    index++;
+                    high = mid - 1;
                 }
             }
-            else if (progress < 0)
-            {
-                if (index <= 0)
-                {
-                    progress = 0;
-                    factor *= -0.5F;
 
-                    if (factor == 0 || factor == -0)
-                    {
-                        factor = 0.05F;
-                    }
-                }
-                else
-                {
-                    progress = 1 + progress % 1;
-                    index--;
-                }
-            }
+            int sample = low - 1;
+            float length = lengths[sample + 1] - lengths[sample];
+
+            x = sample + (length == 0 ? 0 : (target - lengths[sample]) / length);
+        }
 
-            this.applyPoint(this.tmpPoint, index, progress);
-            float dx = this.tmpPoint.x - this.lastPoint.x;
-            float dy = this.tmpPoint.y - this.lastPoint.y;
-            float dz = this.tmpPoint.z - this.lastPoint.z;
-            this.lastPoint.set(this.tmpPoint.x, this.tmpPoint.y, this.tmpPoint.z);
+        x /= LENGTH_SAMPLES;
+
+        int index = (int) x;
+        float progress = x - index;
+
+        if (last > 0 && index >= this.points.size() - 1)
+        {
+            index = this.points.size() - 2;
+            progress = 1;
+        }
+
+        this.applyPoint(pos.point, index, progress);
+        this.applyAngle(pos.angle, index, progress);
+    }
 
-            distance += Math.sqrt(dx * dx + dy * dy + dz * dz) * (factor > 0 ? 1 : -1);
+    /**
+     * Get the distance (in blocks) which must be traveled by given tick 
+     */
+    private float getDistance(float tick)
+    {
+        int index = Math.max((int) tick, 0);
+
+        if (this.distances == null || index >= this.distances.length)
+        {
+            this.calculateDistances(Math.max(index, (int) this.getDuration()) + 1);
+        }
+
+        return (this.distances[index] + this.speed.interpolate(tick) * (tick % 1)) / 20F;
+    }
+
+    /**
+     * Integrate the speed channel into distance table 
+     */
+    private void calculateDistances(int length)
+    {
+        this.distances = new float[length + 1];
 
-            if (diff < Math.abs(target - distance))
+        for (int i = 1; i <= length; i++)
+        {
+            this.distances[i] = this.distances[i - 1] + this.speed.interpolate(i - 1);
+        }
+    }
+
+    /**
+     * Calculate cumulative length of the path by sampling every segment
+     */
+    private void calculateLengths()
+    {
+        int segments = Math.max(this.points.size() - 1, 0);
+        float[] lengths = new float[segments * LENGTH_SAMPLES + 1];
+
+        this.applyPoint(this.lastPoint, 0, 0);
+
+        for (int i = 0; i < segments; i++)
+        {
+            for (int j = 1; j <= LENGTH_SAMPLES; j++)
             {
-                factor *= -0.5F;
-            }
+                int sample = i * LENGTH_SAMPLES + j;
+
+                this.applyPoint(this.tmpPoint, i, j / (float) LENGTH_SAMPLES);
 
-            diff = Math.abs(target - distance);
+                float dx = this.tmpPoint.x - this.lastPoint.x;
+                float dy = this.tmpPoint.y - this.lastPoint.y;
+                float dz = this.tmpPoint.z - this.lastPoint.z;
+
+                lengths[sample] = lengths[sample - 1] + (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+                this.lastPoint.set(this.tmpPoint.x, this.tmpPoint.y, this.tmpPoint.z);
+            }
         }
 
-        this.applyAngle(angle, index, progress);
+        this.lengths = lengths;
     }
 
     /**
@@ -434,16 +503,6 @@ public class PathFixture extends AbstractFixture
     {
         float yaw, pitch, roll, fov;
 
-        if (this.interpolationPos == null)
-        {
-            this.interpolationPos = InterpolationType.LINEAR;
-        }
-
-        if (this.interpolationAngle == null)
-        {
-            this.interpolationAngle = InterpolationType.LINEAR;
-        }
-
         Position p0 = this.getPoint(index - 1);
         Position p1 = this.getPoint(index);
         Position p2 = this.getPoint(index + 1);
@@ -1,80 +1,60 @@
 package mchorse.aperture.camera.json;
 
-import java.lang.reflect.Type;
-
-import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
 
 import mchorse.aperture.camera.FixtureRegistry;
 import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
 import mchorse.aperture.camera.modifiers.AbstractModifier;
 
 /**
  * This class is responsible for serializing and deserializing 
  * registered camera fixtures to JSON.
  */
-public class AbstractFixtureAdapter implements JsonSerializer<AbstractFixture>, JsonDeserializer<AbstractFixture>
+public class AbstractFixtureAdapter extends RegistryTypeAdapter<AbstractFixture>
 {
-    /**
-     * Gson instance for building up
-     */
-    private Gson gson;
-
     public AbstractFixtureAdapter()
     {
         GsonBuilder builder = new GsonBuilder().excludeFieldsWithoutExposeAnnotation();
 
         builder.registerTypeAdapter(AbstractModifier.class, new AbstractModifierAdapter());
+        builder.registerTypeHierarchyAdapter(KeyframeChannel.class, new KeyframeChannelAdapter());
 
         this.gson = builder.create();
     }
 
-    /**
-     * Deserialize an abstract fixture from JsonElement.
-     *
-     * This method extracts type from the JSON map, and creates a fixture
-     * from the type (which is mapped to a class). It also responsible for
-     * setting the target for follow and look fixtures.
-     */
     @Override
-    public AbstractFixture deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException
+    protected String getType(AbstractFixture object)
     {
-        JsonObject object = json.getAsJsonObject();
-        AbstractFixture fixture = null;
-
-        if (object.has("type"))
-        {
-            String type = object.get("type").getAsString();
-
-            fixture = this.gson.fromJson(json, FixtureRegistry.NAME_TO_CLASS.get(type));
-            fixture.fromJSON(object);
-        }
+        return FixtureRegistry.NAME_TO_CLASS.inverse().get(object.getClass());
+    }
 
-        return fixture;
+    @Override
+    protected Class<? extends AbstractFixture> getClass(String type)
+    {
+        return FixtureRegistry.NAME_TO_CLASS.get(type);
     }
 
     /**
-     * Serialize an abstract fixture into JsonElement.
-     *
-     * This method also responsible for giving the serialized abstract fixture
-     * a type key (for later ability to deserialize exact type of the JSON
-     * element) and target key for look and follow fixtures.
+     * Create a fixture from its type. Duration is going to be read from 
+     * JSON later.
      */
     @Override
-    public JsonElement serialize(AbstractFixture src, Type typeOfSrc, JsonSerializationContext context)
+    protected AbstractFixture create(String type) throws Exception
     {
-        JsonObject object = (JsonObject) this.gson.toJsonTree(src);
+        return FixtureRegistry.fromType(FixtureRegistry.NAME_TO_ID.get(type), 0);
+    }
 
-        object.addProperty("type", FixtureRegistry.NAME_TO_CLASS.inverse().get(src.getClass()));
-        src.toJSON(object);
+    @Override
+    protected void fromJSON(AbstractFixture object, JsonObject data)
+    {
+        object.fromJSON(data);
+    }
 
-        return object;
+    @Override
+    protected void toJSON(AbstractFixture object, JsonObject data)
+    {
+        object.toJSON(data);
     }
-}
\ No newline at end of file
+}
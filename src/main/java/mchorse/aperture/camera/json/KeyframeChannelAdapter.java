@@ -0,0 +1,51 @@
+package mchorse.aperture.camera.json;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.PackedKeyframeChannel;
+
+/**
+ * Keyframe channel adapter
+ * 
+ * This class is responsible for serializing and deserializing keyframe 
+ * channels to JSON. Keyframe channels are read straight from the stream 
+ * into packed channels, so no keyframe objects are kept after loading.
+ */
+public class KeyframeChannelAdapter extends TypeAdapter<KeyframeChannel>
+{
+    @Override
+    public KeyframeChannel read(JsonReader in) throws IOException
+    {
+        KeyframeChannel channel = new PackedKeyframeChannel();
+
+        if (in.peek() == JsonToken.BEGIN_OBJECT)
+        {
+            channel.fromJSON(in);
+        }
+        else
+        {
+            in.skipValue();
+        }
+
+        return channel;
+    }
+
+    @Override
+    public void write(JsonWriter out, KeyframeChannel value) throws IOException
+    {
+        if (value == null)
+        {
+            out.nullValue();
+        }
+        else
+        {
+            value.toJSON(out);
+        }
+    }
+}
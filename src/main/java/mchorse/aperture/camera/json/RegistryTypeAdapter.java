@@ -0,0 +1,294 @@
+package mchorse.aperture.camera.json;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.Expose;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Registry type adapter
+ *
+ * Base class for streaming (de)serialization of registered types, such
+ * as camera fixtures and modifiers, which are stored in JSON along with
+ * their registered type.
+ *
+ * Objects are written with "type" key first, so they can be read back
+ * straight from the stream: once the type is known, every property is
+ * bound directly to its {@link Expose}d field. Properties which don't
+ * belong to any field are collected and passed to JSON hooks.
+ *
+ * Objects which were saved by older versions have the type last, so
+ * they're read into JSON tree first, and deserialized from there.
+ */
+public abstract class RegistryTypeAdapter<T> extends TypeAdapter<T>
+{
+    /**
+     * Exposed fields of classes mapped by their names
+     */
+    private static final Map<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<Class<?>, Map<String, Field>>();
+
+    /**
+     * Gson instance which is used to (de)serialize fields
+     */
+    protected Gson gson;
+
+    /**
+     * Get exposed fields of given class (including its super classes)
+     */
+    private static Map<String, Field> getFields(Class<?> clazz)
+    {
+        Map<String, Field> fields = FIELDS.get(clazz);
+
+        if (fields != null)
+        {
+            return fields;
+        }
+
+        fields = new LinkedHashMap<String, Field>();
+
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass())
+        {
+            for (Field field : current.getDeclaredFields())
+            {
+                int modifiers = field.getModifiers();
+
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.getAnnotation(Expose.class) == null)
+                {
+                    continue;
+                }
+
+                if (!fields.containsKey(field.getName()))
+                {
+                    field.setAccessible(true);
+                    fields.put(field.getName(), field);
+                }
+            }
+        }
+
+        FIELDS.put(clazz, fields);
+
+        return fields;
+    }
+
+    /**
+     * Get registered type of given object
+     */
+    protected abstract String getType(T object);
+
+    /**
+     * Get class which is registered by given type
+     */
+    protected abstract Class<? extends T> getClass(String type);
+
+    /**
+     * Create an object of given registered type
+     */
+    protected abstract T create(String type) throws Exception;
+
+    /**
+     * Read the rest of the data which isn't stored in exposed fields
+     */
+    protected abstract void fromJSON(T object, JsonObject data);
+
+    /**
+     * Write the rest of the data which isn't stored in exposed fields
+     */
+    protected abstract void toJSON(T object, JsonObject data);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+
+            return null;
+        }
+
+        in.beginObject();
+
+        if (!in.hasNext())
+        {
+            in.endObject();
+
+            return null;
+        }
+
+        String name = in.nextName();
+
+        if (!name.equals("type"))
+        {
+            return this.readTree(in, name);
+        }
+
+        String type = in.nextString();
+        Class<? extends T> clazz = this.getClass(type);
+        T object = null;
+
+        if (clazz != null)
+        {
+            try
+            {
+                object = this.create(type);
+            }
+            catch (Exception e)
+            {
+                throw new JsonParseException("Couldn't create '" + type + "'!", e);
+            }
+        }
+
+        if (object == null)
+        {
+            while (in.hasNext())
+            {
+                in.nextName();
+                in.skipValue();
+            }
+
+            in.endObject();
+
+            return null;
+        }
+
+        Map<String, Field> fields = getFields(object.getClass());
+        JsonObject data = new JsonObject();
+
+        while (in.hasNext())
+        {
+            name = in.nextName();
+            Field field = fields.get(name);
+            Expose expose = field == null ? null : field.getAnnotation(Expose.class);
+
+            if (field != null && expose.deserialize())
+            {
+                TypeAdapter<Object> adapter = (TypeAdapter<Object>) this.gson.getAdapter(TypeToken.get(field.getGenericType()));
+
+                try
+                {
+                    field.set(object, adapter.read(in));
+                }
+                catch (IllegalAccessException e)
+                {
+                    throw new JsonParseException(e);
+                }
+            }
+            else
+            {
+                data.add(name, new JsonParser().parse(in));
+            }
+        }
+
+        in.endObject();
+        this.fromJSON(object, data);
+
+        return object;
+    }
+
+    /**
+     * Read the rest of the object (which has its type at the end) into
+     * JSON tree, and deserialize it from there
+     */
+    private T readTree(JsonReader in, String first) throws IOException
+    {
+        JsonObject object = new JsonObject();
+        JsonParser parser = new JsonParser();
+
+        object.add(first, parser.parse(in));
+
+        while (in.hasNext())
+        {
+            String name = in.nextName();
+
+            object.add(name, parser.parse(in));
+        }
+
+        in.endObject();
+
+        if (!object.has("type"))
+        {
+            return null;
+        }
+
+        Class<? extends T> clazz = this.getClass(object.get("type").getAsString());
+
+        if (clazz == null)
+        {
+            return null;
+        }
+
+        T result = this.gson.fromJson(object, clazz);
+
+        this.fromJSON(result, object);
+
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(JsonWriter out, T value) throws IOException
+    {
+        if (value == null)
+        {
+            out.nullValue();
+
+            return;
+        }
+
+        out.beginObject();
+        out.name("type").value(this.getType(value));
+
+        for (Map.Entry<String, Field> entry : getFields(value.getClass()).entrySet())
+        {
+            Field field = entry.getValue();
+
+            if (!field.getAnnotation(Expose.class).serialize())
+            {
+                continue;
+            }
+
+            try
+            {
+                Object fieldValue = field.get(value);
+
+                if (fieldValue != null)
+                {
+                    TypeAdapter<Object> adapter = (TypeAdapter<Object>) this.gson.getAdapter(TypeToken.get(field.getGenericType()));
+
+                    out.name(entry.getKey());
+                    adapter.write(out, fieldValue);
+                }
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        JsonObject data = new JsonObject();
+
+        this.toJSON(value, data);
+
+        for (Map.Entry<String, JsonElement> entry : data.entrySet())
+        {
+            out.name(entry.getKey());
+            this.gson.toJson(entry.getValue(), out);
+        }
+
+        out.endObject();
+    }
+}
@@ -32,6 +32,18 @@ public abstract class AbstractModifier
      */
     public abstract void modify(long ticks, long offset, AbstractFixture fixture, float partialTick, CameraProfile profile, Position pos);
 
+    /**
+     * Whether this modifier depends on the state of the world (i.e. 
+     * entities) or on its own previous results (i.e. drag), so its 
+     * output depends on how often it's evaluated. Live modifiers (and the 
+     * ones after them) can't be baked, so they're evaluated during the 
+     * playback.
+     */
+    public boolean isLive()
+    {
+        return false;
+    }
+
     @Override
     public abstract AbstractModifier clone();
 
@@ -51,6 +51,16 @@ public class DragModifier extends ComponentModifier
         if (this.isActive(6)) pos.angle.fov = this.fov = Interpolations.lerp(this.fov, pos.angle.fov, this.factor);
     }
 
+    /**
+     * Drag lerps from its previous result, so it's evaluated every frame 
+     * the same way with or without baking
+     */
+    @Override
+    public boolean isLive()
+    {
+        return true;
+    }
+
     @Override
     public AbstractModifier clone()
     {
@@ -1,13 +1,15 @@
 package mchorse.aperture.camera.modifiers;
 
+import java.util.UUID;
+
 import com.google.gson.annotations.Expose;
 
 import io.netty.buffer.ByteBuf;
-import mchorse.aperture.camera.data.Position;
 import mchorse.aperture.utils.EntitySelector;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 
 /**
@@ -20,10 +22,15 @@ import net.minecraftforge.fml.common.network.ByteBufUtils;
 public abstract class EntityModifier extends AbstractModifier
 {
     /**
-     * Position which may be used for calculation of relative 
-     * camera fixture animations
+     * Delay (in milliseconds) before the first retry of finding an 
+     * entity, it gets doubled after every failed attempt
      */
-    public Position position = new Position(0, 0, 0, 0, 0);
+    public static final long RETRY_DELAY = 250;
+
+    /**
+     * Maximum delay between attempts of finding an entity
+     */
+    public static final long MAX_RETRY_DELAY = 5000;
 
     /**
      * Target entity 
@@ -38,19 +45,156 @@ public abstract class EntityModifier extends AbstractModifier
     @Expose
     public String selector = "";
 
+    /**
+     * Selector which was parsed into {@link #token} or {@link #uuid}
+     */
+    private String parsed;
+
+    /**
+     * Parsed entity selector
+     */
+    private EntitySelector.Token token;
+
+    /**
+     * Target's UUID, if selector is an UUID
+     */
+    private UUID uuid;
+
+    /**
+     * ID and UUID of the entity which was found last time
+     */
+    private int pinnedId = -1;
+    private UUID pinnedUUID;
+
+    /**
+     * Failed attempts of finding an entity, and time (in milliseconds) 
+     * of the next attempt
+     */
+    private int retries;
+    private long nextRetry;
+
     /**
      * Try finding entity based on entity selector or target's UUID
+     * 
+     * Entity which was found gets pinned by its ID, so it could be 
+     * fetched directly next time. If no entity was found, next attempt 
+     * is delayed, because matching selector goes over all loaded 
+     * entities in the world.
      */
     public void tryFindingEntity()
     {
         this.entity = null;
 
-        if (this.selector != null && !this.selector.isEmpty())
+        if (this.selector == null || this.selector.isEmpty())
+        {
+            return;
+        }
+
+        EntityPlayer player = Minecraft.getMinecraft().thePlayer;
+
+        if (player == null)
+        {
+            return;
+        }
+
+        if (!this.selector.equals(this.parsed))
+        {
+            this.parseSelector();
+        }
+
+        if (this.pinnedId != -1)
+        {
+            Entity entity = player.worldObj.getEntityByID(this.pinnedId);
+
+            if (entity != null && !entity.isDead && entity.getUniqueID().equals(this.pinnedUUID))
+            {
+                this.entity = entity;
+
+                return;
+            }
+
+            this.pinnedId = -1;
+            this.pinnedUUID = null;
+        }
+
+        long time = System.currentTimeMillis();
+
+        if (time < this.nextRetry)
+        {
+            return;
+        }
+
+        if (this.uuid != null)
+        {
+            this.entity = this.findEntity(player.worldObj, this.uuid);
+        }
+        else if (this.token != null)
+        {
+            this.entity = EntitySelector.matchOneEntity(player, this.token, Entity.class);
+        }
+
+        if (this.entity != null)
+        {
+            this.pinnedId = this.entity.getEntityId();
+            this.pinnedUUID = this.entity.getUniqueID();
+            this.retries = 0;
+            this.nextRetry = 0;
+        }
+        else
+        {
+            this.nextRetry = time + Math.min(RETRY_DELAY << Math.min(this.retries, 16), MAX_RETRY_DELAY);
+            this.retries++;
+        }
+    }
+
+    /**
+     * Parse current selector, and reset pinned entity along with failed 
+     * attempts, since they belong to previous selector
+     */
+    private void parseSelector()
+    {
+        this.parsed = this.selector;
+        this.token = EntitySelector.parseToken(this.selector);
+        this.uuid = null;
+
+        if (this.token == null)
         {
-            EntityPlayer player = Minecraft.getMinecraft().thePlayer;
+            try
+            {
+                this.uuid = UUID.fromString(this.selector);
+            }
+            catch (IllegalArgumentException e)
+            {}
+        }
 
-            this.entity = EntitySelector.matchOneEntity(player, this.selector, Entity.class);
+        this.pinnedId = -1;
+        this.pinnedUUID = null;
+        this.retries = 0;
+        this.nextRetry = 0;
+    }
+
+    /**
+     * Find loaded entity by its UUID
+     */
+    private Entity findEntity(World world, UUID uuid)
+    {
+        for (int i = 0, c = world.loadedEntityList.size(); i < c; i++)
+        {
+            Entity entity = world.loadedEntityList.get(i);
+
+            if (!entity.isDead && entity.getUniqueID().equals(uuid))
+            {
+                return entity;
+            }
         }
+
+        return null;
+    }
+
+    @Override
+    public boolean isLive()
+    {
+        return true;
     }
 
     /* Save/load methods */
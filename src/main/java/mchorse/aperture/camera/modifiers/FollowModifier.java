@@ -26,15 +26,15 @@ public class FollowModifier extends EntityModifier
             return;
         }
 
-        fixture.applyFixture(0, 0, profile, this.position);
+        Position origin = fixture.getOrigin(profile);
 
         float x = (float) (this.entity.lastTickPosX + (this.entity.posX - this.entity.lastTickPosX) * partialTick);
         float y = (float) (this.entity.lastTickPosY + (this.entity.posY - this.entity.lastTickPosY) * partialTick);
         float z = (float) (this.entity.lastTickPosZ + (this.entity.posZ - this.entity.lastTickPosZ) * partialTick);
 
-        x += pos.point.x - this.position.point.x;
-        y += pos.point.y - this.position.point.y;
-        z += pos.point.z - this.position.point.z;
+        x += pos.point.x - origin.point.x;
+        y += pos.point.y - origin.point.y;
+        z += pos.point.z - origin.point.z;
 
         pos.point.set(x, y, z);
     }
@@ -38,7 +38,7 @@ public class LookModifier extends EntityModifier
             return;
         }
 
-        fixture.applyFixture(0, 0, profile, this.position);
+        Position origin = fixture.getOrigin(profile);
 
         double x = 0;
         double y = 0;
@@ -67,8 +67,8 @@ public class LookModifier extends EntityModifier
 
         if (this.relative)
         {
-            yaw += pos.angle.yaw - this.position.angle.yaw;
-            pitch += pos.angle.pitch - this.position.angle.pitch;
+            yaw += pos.angle.yaw - origin.angle.yaw;
+            pitch += pos.angle.pitch - origin.angle.pitch;
         }
 
         pos.angle.set(yaw, pitch);
@@ -8,7 +8,6 @@ import mchorse.aperture.camera.data.Position;
 import mchorse.aperture.camera.fixtures.AbstractFixture;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.util.math.MathHelper;
-import net.minecraft.util.math.Vec3d;
 
 /**
  * Orbit modifier
@@ -57,7 +56,7 @@ public class OrbitModifier extends EntityModifier
             return;
         }
 
-        fixture.applyFixture(0, 0, profile, this.position);
+        Position origin = fixture.getOrigin(profile);
 
         float yaw = 0;
         float pitch = 0;
@@ -81,7 +80,7 @@ public class OrbitModifier extends EntityModifier
 
         /* Add relative and stored yaw, pitch and distance */
         yaw += this.yaw;
-        yaw += pos.angle.yaw - this.position.angle.yaw;
+        yaw += pos.angle.yaw - origin.angle.yaw;
 
         if (this.copy)
         {
@@ -89,9 +88,9 @@ public class OrbitModifier extends EntityModifier
         }
 
         pitch += this.pitch;
-        pitch += pos.angle.pitch - this.position.angle.pitch;
+        pitch += pos.angle.pitch - origin.angle.pitch;
 
-        distance += pos.point.z - this.position.point.z;
+        distance += pos.point.z - origin.point.z;
 
         /* Calculate entity's position */
         float x = (float) (this.entity.lastTickPosX + (this.entity.posX - this.entity.lastTickPosX) * partialTick);
@@ -105,14 +104,13 @@ public class OrbitModifier extends EntityModifier
         float f1 = MathHelper.sin(-yaw * degToPi - (float) Math.PI);
         float f2 = -MathHelper.cos(-pitch * degToPi);
         float f3 = MathHelper.sin(-pitch * degToPi);
-        Vec3d look = new Vec3d(f1 * f2, f3, f * f2);
 
         pos.point.set(x, y, z);
 
         /* Add to entity's position orbit offset */
-        x += look.xCoord * distance;
-        y += look.yCoord * distance;
-        z += look.zCoord * distance;
+        x += f1 * f2 * distance;
+        y += f3 * distance;
+        z += f * f2 * distance;
 
         /* Look at the origin */
         double dX = pos.point.x - x;
@@ -10,6 +10,7 @@ import mchorse.aperture.camera.CameraControl;
 import mchorse.aperture.camera.smooth.SmoothCamera;
 import mchorse.aperture.client.gui.GuiCameraEditor;
 import mchorse.aperture.events.CameraProfileChangedEvent;
+import mchorse.aperture.network.ChunkedPayload.Assembler;
 import mchorse.aperture.utils.L10n;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
@@ -185,6 +186,15 @@ public class KeyboardHandler
     {
         ClientProxy.control.reset();
 
+        /* Disconnection is handled on the network thread, while camera 
+         * profile chunks are assembled and preview is rendered on the 
+         * main thread */
+        this.mc.addScheduledTask(() ->
+        {
+            Assembler.cancelAll();
+            ClientProxy.renderer.deletePreview();
+        });
+
         if (Loader.isModLoaded("replaymod"))
         {
             inReplay = false;
@@ -0,0 +1,131 @@
+package mchorse.aperture.client;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.commons.io.FileUtils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mchorse.aperture.ClientProxy;
+import mchorse.aperture.camera.CameraIO;
+import mchorse.aperture.camera.CameraProfile;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client profile cache
+ *
+ * On-disk cache of camera profiles which were received from servers,
+ * stored by their content hash (see {@link CameraProfile#hash(long[])}).
+ * Server offers the hash of camera profile first, and if it's found in
+ * this cache, camera profile doesn't have to be downloaded again (even
+ * after relogging).
+ *
+ * Least recently used files are removed once there are more than
+ * {@link #MAX_FILES} of them.
+ */
+@SideOnly(Side.CLIENT)
+public class ProfileCache
+{
+    /**
+     * Maximum amount of cached camera profiles
+     */
+    public static final int MAX_FILES = 64;
+
+    /**
+     * Get file of camera profile with given hash
+     */
+    public static File getFile(long hash)
+    {
+        return new File(ClientProxy.cache, String.format("%016x.dat", hash));
+    }
+
+    /**
+     * Store camera profile received from the server with given content
+     * hash. It's encoded on the main thread, and written on the I/O thread.
+     */
+    public static void store(CameraProfile profile, long hash)
+    {
+        File file = getFile(hash);
+
+        if (file.exists())
+        {
+            file.setLastModified(System.currentTimeMillis());
+
+            return;
+        }
+
+        ByteBuf buffer = Unpooled.buffer();
+        byte[] bytes;
+
+        profile.toByteBuf(buffer);
+        bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        buffer.release();
+
+        CameraIO.submit(() ->
+        {
+            CameraIO.writeAtomically(file, bytes);
+            prune();
+
+            return file;
+        }, Minecraft.getMinecraft(), null);
+    }
+
+    /**
+     * Load cached camera profile with given hash on the I/O thread. Given
+     * callback gets {@code null} if there is no such camera profile, or
+     * if the cached file doesn't match the hash.
+     */
+    public static void load(long hash, CameraIO.Callback<CameraProfile> callback)
+    {
+        File file = getFile(hash);
+
+        CameraIO.submit(() ->
+        {
+            if (!file.exists())
+            {
+                return null;
+            }
+
+            CameraProfile profile = new CameraProfile(null);
+
+            profile.fromByteBuf(Unpooled.wrappedBuffer(FileUtils.readFileToByteArray(file)));
+
+            if (CameraProfile.hash(profile.getFixtureHashes()) != hash)
+            {
+                file.delete();
+
+                return null;
+            }
+
+            file.setLastModified(System.currentTimeMillis());
+
+            return profile;
+        }, Minecraft.getMinecraft(), callback);
+    }
+
+    /**
+     * Remove least recently used camera profiles which don't fit into the
+     * cache
+     */
+    private static void prune()
+    {
+        File[] files = ClientProxy.cache.listFiles((file) -> file.getName().endsWith(".dat"));
+
+        if (files == null || files.length <= MAX_FILES)
+        {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (int i = 0; i < files.length - MAX_FILES; i++)
+        {
+            files[i].delete();
+        }
+    }
+}
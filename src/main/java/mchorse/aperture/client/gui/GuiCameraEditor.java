@@ -553,6 +553,13 @@ public class GuiCameraEditor extends GuiBase implements IScrubListener
         this.selectProfile(ClientProxy.control.currentProfile);
         this.profiles.init();
 
+        if (this.panel.delegate != null)
+        {
+            /* Fixture's data was packed upon closing, so the panel should 
+             * refresh its references to the data */
+            this.panel.delegate.select(this.panel.delegate.fixture, -1);
+        }
+
         Minecraft.getMinecraft().gameSettings.hideGUI = true;
         GuiIngameForge.renderHotbar = false;
         GuiIngameForge.renderCrosshairs = false;
@@ -629,6 +636,9 @@ public class GuiCameraEditor extends GuiBase implements IScrubListener
 
         if (this.profile != null)
         {
+            /* Durations of the fixtures might have been changed */
+            this.profile.invalidateOffsets();
+
             this.scrub.max = Math.max((int) this.profile.getDuration(), this.maxScrub);
             this.scrub.setValue(this.scrub.value);
             this.frame.trackpad.max = this.profile.getDuration();
@@ -868,6 +878,15 @@ public class GuiCameraEditor extends GuiBase implements IScrubListener
             this.runner.detachOutside();
         }
 
+        if (this.profile != null)
+        {
+            /* Editable data isn't needed outside of the editor */
+            for (AbstractFixture fixture : this.profile.getAll())
+            {
+                fixture.pack();
+            }
+        }
+
         if (this.lastGameMode != GameType.NOT_SET)
         {
             this.mc.thePlayer.sendChatMessage("/gamemode " + this.lastGameMode.getID());
@@ -12,6 +12,10 @@ import mchorse.mclib.client.gui.framework.elements.GuiElement;
 import mchorse.mclib.client.gui.utils.GuiUtils;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Gui;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.MathHelper;
 
@@ -333,6 +337,8 @@ public class GuiPlaybackScrub extends GuiElement
                     this.end.setDuration(end - value);
                 }
 
+                this.profile.invalidateOffsets();
+
                 /* Update the values */
                 GuiAbstractFixturePanel<AbstractFixture> delegate = this.editor.panel.delegate;
 
@@ -364,17 +370,27 @@ public class GuiPlaybackScrub extends GuiElement
             int width = this.font.getStringWidth(label) + 4;
 
             /* Draw fixtures */
-            int pos = 0;
-            int i = 0;
             boolean drawnMarker = false;
             int leftMarginMarker = 0;
             int rightMarginMarker = 0;
 
             GuiUtils.scissor(x + 2, y - 16, w - 4, h + 16, this.editor.width, this.editor.height);
 
-            for (AbstractFixture fixture : this.profile.getAll())
+            /* Only visible fixtures are drawn, starting with the first 
+             * one which ends after the left edge */
+            int first = Math.max(this.profile.findIndex(this.calcValueFromMouse(x) - 1), 0);
+            int last = first;
+            int count = this.profile.getCount();
+
+            VertexBuffer vb = Tessellator.getInstance().getBuffer();
+
+            vb.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+
+            for (int i = first; i < count; i++)
             {
+                AbstractFixture fixture = this.profile.get(i);
                 int color = FixtureRegistry.CLIENT.get(fixture.getClass()).color.getHex();
+                long pos = this.profile.getOffset(i);
 
                 boolean selected = i == this.index;
                 float leftFactor = (float) (pos - this.min) / (float) (this.max - this.min);
@@ -382,47 +398,21 @@ public class GuiPlaybackScrub extends GuiElement
                 int leftMargin = x + 1 + (int) (this.max * leftFactor * this.scale) - this.scroll;
                 int rightMargin = x + 1 + (int) (this.max * rightFactor * this.scale) - this.scroll;
 
-                /* Draw fixture's background and the hinge */
-                Gui.drawRect(leftMargin + 1, y + 15, rightMargin, y + h - 1, (selected ? 0xff000000 : 0x66000000) + color);
-                Gui.drawRect(rightMargin, y + 1, rightMargin + 1, y + h - 1, 0xff000000 + color);
+                if (leftMargin > x + w)
+                {
+                    break;
+                }
 
-                String name = fixture.getName();
+                last = i;
+
+                /* Draw fixture's background and the hinge */
+                this.drawRect(vb, leftMargin + 1, y + 15, rightMargin, y + h - 1, (selected ? 0xff000000 : 0x66000000) + color);
+                this.drawRect(vb, rightMargin, y + 1, rightMargin + 1, y + h - 1, 0xff000000 + color);
 
                 /* Draw path's fixture separators */
                 if (fixture instanceof PathFixture)
                 {
-                    PathFixture path = (PathFixture) fixture;
-                    int c = path.getCount() - 1;
-
-                    if (c > 1)
-                    {
-                        if (path.perPointDuration)
-                        {
-                            long duration = path.getDuration();
-                            long frame = path.getPoint(0).getDuration();
-
-                            for (int j = 1; j < c; j++)
-                            {
-                                int fract = (int) ((rightMargin - leftMargin) * ((float) frame / duration));
-                                int px = leftMargin + fract;
-
-                                Gui.drawRect(px, y + 5, px + 1, y + h - 1, 0xff000000 + color - 0x00181818);
-
-                                frame += path.getPoint(j).getDuration();
-                            }
-                        }
-                        else
-                        {
-                            int fract = (rightMargin - leftMargin) / c;
-
-                            for (int j = 1; j < c; j++)
-                            {
-                                int px = leftMargin + fract * j;
-
-                                Gui.drawRect(px, y + 5, px + 1, y + h - 1, 0xff000000 + color - 0x00181818);
-                            }
-                        }
-                    }
+                    this.drawSeparators(vb, (PathFixture) fixture, leftMargin, rightMargin, 0xff000000 + color - 0x00181818);
                 }
 
                 if (this.area.isInside(mouseX, mouseY) && !this.resize && !drawnMarker)
@@ -437,25 +427,38 @@ public class GuiPlaybackScrub extends GuiElement
                         drawnMarker = true;
                     }
                 }
+            }
 
-                /* Draw fixture's title */
-                if (!name.isEmpty())
-                {
-                    int lw = this.font.getStringWidth(name);
-                    int textColor = selected ? 16777120 : 0xffffff;
+            this.drawRects();
 
-                    if (lw + 4 < rightMargin - leftMargin)
-                    {
-                        this.font.drawStringWithShadow(name, leftMargin + 4, y + 6, textColor);
-                    }
-                    else
-                    {
-                        this.font.drawStringWithShadow("...", leftMargin + 4, y + 6, textColor);
-                    }
+            /* Draw fixtures' titles after all rectangles */
+            for (int i = first; i <= last && i < count; i++)
+            {
+                AbstractFixture fixture = this.profile.get(i);
+                String name = fixture.getName();
+
+                if (name.isEmpty())
+                {
+                    continue;
                 }
 
-                pos += fixture.getDuration();
-                i++;
+                long pos = this.profile.getOffset(i);
+                float leftFactor = (float) (pos - this.min) / (float) (this.max - this.min);
+                float rightFactor = (float) (pos + fixture.getDuration() - this.min) / (float) (this.max - this.min);
+                int leftMargin = x + 1 + (int) (this.max * leftFactor * this.scale) - this.scroll;
+                int rightMargin = x + 1 + (int) (this.max * rightFactor * this.scale) - this.scroll;
+
+                int lw = this.font.getStringWidth(name);
+                int textColor = i == this.index ? 16777120 : 0xffffff;
+
+                if (lw + 4 < rightMargin - leftMargin)
+                {
+                    this.font.drawStringWithShadow(name, leftMargin + 4, y + 6, textColor);
+                }
+                else
+                {
+                    this.font.drawStringWithShadow("...", leftMargin + 4, y + 6, textColor);
+                }
             }
 
             if (this.scroll > 0) GuiUtils.drawHorizontalGradientRect(x + 2, y + h - 5, x + 22, y + h, 0x88000000, 0x00000000, 0);
@@ -499,6 +502,119 @@ public class GuiPlaybackScrub extends GuiElement
         Gui.drawRect(x, y + h - 1, x + w, y + h, 0xffffffff);
     }
 
+    /**
+     * Add separators between path points of given path fixture to the 
+     * batch. Separators outside of the scrub, or on the same pixel, are 
+     * skipped.
+     */
+    private void drawSeparators(VertexBuffer vb, PathFixture path, int leftMargin, int rightMargin, int color)
+    {
+        int c = path.getCount() - 1;
+
+        if (c <= 1)
+        {
+            return;
+        }
+
+        int y = this.area.y;
+        int h = this.area.h;
+        int minX = this.area.x;
+        int maxX = this.area.x + this.area.w;
+        int lastX = Integer.MIN_VALUE;
+
+        if (path.perPointDuration)
+        {
+            long duration = path.getDuration();
+            long frame = path.getPoint(0).getDuration();
+
+            for (int j = 1; j < c; j++)
+            {
+                int fract = (int) ((rightMargin - leftMargin) * ((float) frame / duration));
+                int px = leftMargin + fract;
+
+                if (px > maxX)
+                {
+                    break;
+                }
+
+                if (px >= minX && px != lastX)
+                {
+                    this.drawRect(vb, px, y + 5, px + 1, y + h - 1, color);
+                    lastX = px;
+                }
+
+                frame += path.getPoint(j).getDuration();
+            }
+        }
+        else
+        {
+            int fract = (rightMargin - leftMargin) / c;
+
+            if (fract <= 0)
+            {
+                return;
+            }
+
+            for (int j = Math.max(1, (minX - leftMargin) / fract); j < c; j++)
+            {
+                int px = leftMargin + fract * j;
+
+                if (px > maxX)
+                {
+                    break;
+                }
+
+                this.drawRect(vb, px, y + 5, px + 1, y + h - 1, color);
+            }
+        }
+    }
+
+    /**
+     * Add a rectangle to the batch (same as {@link Gui#drawRect(int, int, int, int, int)})
+     */
+    private void drawRect(VertexBuffer vb, int left, int top, int right, int bottom, int color)
+    {
+        if (left < right)
+        {
+            int i = left;
+            left = right;
+            right = i;
+        }
+
+        if (top < bottom)
+        {
+            int j = top;
+            top = bottom;
+            bottom = j;
+        }
+
+        int a = color >> 24 & 255;
+        int r = color >> 16 & 255;
+        int g = color >> 8 & 255;
+        int b = color & 255;
+
+        vb.pos(left, bottom, 0).color(r, g, b, a).endVertex();
+        vb.pos(right, bottom, 0).color(r, g, b, a).endVertex();
+        vb.pos(right, top, 0).color(r, g, b, a).endVertex();
+        vb.pos(left, top, 0).color(r, g, b, a).endVertex();
+    }
+
+    /**
+     * Draw all batched rectangles in one pass
+     */
+    private void drawRects()
+    {
+        GlStateManager.enableBlend();
+        GlStateManager.disableTexture2D();
+        GlStateManager.tryBlendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
+        GlStateManager.color(1, 1, 1, 1);
+
+        Tessellator.getInstance().draw();
+
+        GlStateManager.enableTexture2D();
+        GlStateManager.disableBlend();
+    }
+
     /**
      * Scrub event listener
      */
@@ -7,7 +7,9 @@ import java.util.function.Consumer;
 
 import mchorse.aperture.ClientProxy;
 import mchorse.aperture.camera.CameraAPI;
+import mchorse.aperture.camera.CameraIO;
 import mchorse.aperture.camera.CameraProfile;
+import mchorse.aperture.camera.ProfileHeader;
 import mchorse.aperture.camera.destination.AbstractDestination;
 import mchorse.aperture.camera.destination.ClientDestination;
 import mchorse.aperture.camera.destination.ServerDestination;
@@ -299,12 +301,42 @@ public class GuiProfilesManager extends GuiElement
         public AbstractDestination destination;
         public CameraProfile profile;
 
+        /**
+         * Header of client camera profile which isn't loaded, so its 
+         * metadata could be shown without parsing it
+         */
+        public ProfileHeader header;
+        private boolean requested;
+
         public CameraProfileEntry(AbstractDestination destination, CameraProfile profile)
         {
             this.destination = destination;
             this.profile = profile;
         }
 
+        /**
+         * Get short info (amount of fixtures and duration) about this 
+         * camera profile. Header of not loaded client camera profile is 
+         * read on the I/O thread, so it may be not available right away.
+         */
+        public String getInfo()
+        {
+            if (this.profile != null)
+            {
+                return I18n.format("aperture.gui.profiles.info", this.profile.getCount(), this.profile.getDuration());
+            }
+
+            if (!this.requested && this.destination instanceof ClientDestination)
+            {
+                ClientDestination destination = (ClientDestination) this.destination;
+
+                this.requested = true;
+                CameraIO.submit(() -> ProfileHeader.read(destination.getFile()), Minecraft.getMinecraft(), (header, error) -> this.header = header);
+            }
+
+            return this.header == null ? null : I18n.format("aperture.gui.profiles.info", this.header.getCount(), this.header.getDuration());
+        }
+
         @Override
         public String toString()
         {
@@ -440,6 +472,13 @@ public class GuiProfilesManager extends GuiElement
             GlStateManager.disableAlpha();
 
             this.font.drawStringWithShadow(element.destination.getFilename(), x + 4 + 16, y + 6, hasProfile ? (hover ? 16777120 : 0xffffff) : 0x888888);
+
+            String info = element.getInfo();
+
+            if (info != null)
+            {
+                this.font.drawStringWithShadow(info, x + this.scroll.w - 4 - this.font.getStringWidth(info), y + 6, 0x666666);
+            }
         }
     }
 }
\ No newline at end of file
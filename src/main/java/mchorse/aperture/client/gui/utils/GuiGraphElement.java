@@ -1,10 +1,13 @@
 package mchorse.aperture.client.gui.utils;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import org.lwjgl.opengl.GL11;
 
 import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.Easing;
 import mchorse.aperture.camera.fixtures.KeyframeFixture.Interpolation;
 import mchorse.aperture.camera.fixtures.KeyframeFixture.Keyframe;
 import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
@@ -49,6 +52,20 @@ public class GuiGraphElement extends GuiElement
     private int multX = 1;
     private int multY = 1;
 
+    /* Sampled curve of the channel, cached per segment (by segment's 
+     * first keyframe) */
+    private Map<Keyframe, Segment> segments = new IdentityHashMap<Keyframe, Segment>();
+    private KeyframeChannel cachedChannel;
+    private int stamp;
+
+    /* View with which cached segments were projected */
+    private float lastShiftX;
+    private float lastShiftY;
+    private float lastZoomX;
+    private float lastZoomY;
+    private int lastX0;
+    private int lastY0;
+
     public GuiGraphElement(Minecraft mc, Consumer<Keyframe> callback)
     {
         super(mc);
@@ -462,6 +479,12 @@ public class GuiGraphElement extends GuiElement
                 this.parent.editor.scrub.setValueFromScrub((int) (x + offset));
             }
 
+            if (this.which != -1 && this.parent != null)
+            {
+                /* Profile gets marked dirty only after dragging is done */
+                this.parent.fixture.invalidate();
+            }
+
             this.setKeyframe(this.getCurrent());
         }
 
@@ -531,26 +554,18 @@ public class GuiGraphElement extends GuiElement
         vb.begin(GL11.GL_LINES, DefaultVertexFormats.POSITION_COLOR);
 
         Keyframe prev = null;
+        boolean view = this.updateView();
 
         for (Keyframe frame : this.channel.getKeyframes())
         {
             if (prev != null)
             {
-                int px = this.toGraphX(prev.tick);
-                int fx = this.toGraphX(frame.tick);
+                Segment segment = this.getSegment(prev, frame, view);
 
-                if (prev.interp == Interpolation.LINEAR)
+                for (int i = 0; i < segment.count; i++)
                 {
-                    vb.pos(px, this.toGraphY(prev.value), 0).color(r, g, b, 1).endVertex();
-                    vb.pos(fx, this.toGraphY(frame.value), 0).color(r, g, b, 1).endVertex();
-                }
-                else
-                {
-                    for (int i = 0; i < 10; i++)
-                    {
-                        vb.pos(px + (fx - px) * (i / 10F), this.toGraphY(prev.interpolate(frame, i / 10F)), 0).color(r, g, b, 1).endVertex();
-                        vb.pos(px + (fx - px) * ((i + 1) / 10F), this.toGraphY(prev.interpolate(frame, (i + 1) / 10F)), 0).color(r, g, b, 1).endVertex();
-                    }
+                    vb.pos(segment.xs[i], segment.ys[i], 0).color(r, g, b, 1).endVertex();
+                    vb.pos(segment.xs[i + 1], segment.ys[i + 1], 0).color(r, g, b, 1).endVertex();
                 }
 
                 if (prev.interp == Interpolation.BEZIER && this.bezier)
@@ -579,6 +594,7 @@ public class GuiGraphElement extends GuiElement
         vb.pos(w, this.toGraphY(prev.value), 0).color(r, g, b, 1).endVertex();
 
         Tessellator.getInstance().draw();
+        this.pruneSegments();
 
         /* Draw points */
         GL11.glPointSize(10);
@@ -641,4 +657,164 @@ public class GuiGraphElement extends GuiElement
         GlStateManager.disableBlend();
         GlStateManager.enableTexture2D();
     }
-}
\ No newline at end of file
+
+    /**
+     * Check whether the view was zoomed or shifted since the last frame 
+     * (so cached segments should be projected again)
+     */
+    private boolean updateView()
+    {
+        int x0 = this.area.getX(0.5F);
+        int y0 = this.area.getY(0.5F);
+
+        if (this.channel != this.cachedChannel)
+        {
+            this.segments.clear();
+            this.cachedChannel = this.channel;
+        }
+
+        if (this.shiftX == this.lastShiftX && this.shiftY == this.lastShiftY && this.zoomX == this.lastZoomX && this.zoomY == this.lastZoomY && x0 == this.lastX0 && y0 == this.lastY0)
+        {
+            return false;
+        }
+
+        this.lastShiftX = this.shiftX;
+        this.lastShiftY = this.shiftY;
+        this.lastZoomX = this.zoomX;
+        this.lastZoomY = this.zoomY;
+        this.lastX0 = x0;
+        this.lastY0 = y0;
+
+        return true;
+    }
+
+    /**
+     * Get cached segment between given keyframes. It's sampled again only 
+     * if any of keyframes it depends on were changed, and projected again 
+     * if it was sampled or the view was changed.
+     */
+    private Segment getSegment(Keyframe a, Keyframe b, boolean view)
+    {
+        Segment segment = this.segments.get(a);
+
+        if (segment == null)
+        {
+            segment = new Segment();
+            this.segments.put(a, segment);
+        }
+
+        segment.stamp = this.stamp;
+
+        if (segment.update(a, b) || view)
+        {
+            segment.project(this);
+        }
+
+        return segment;
+    }
+
+    /**
+     * Remove cached segments of removed keyframes
+     */
+    private void pruneSegments()
+    {
+        if (this.segments.size() >= this.channel.getKeyframes().size())
+        {
+            int stamp = this.stamp;
+
+            this.segments.values().removeIf((segment) -> segment.stamp != stamp);
+        }
+
+        this.stamp++;
+    }
+
+    /**
+     * Cached segment of the curve between two keyframes. It remembers 
+     * everything the interpolation depends on, so it could tell whether 
+     * it has to be sampled again.
+     */
+    private static class Segment
+    {
+        public static final int SAMPLES = 10;
+
+        public int stamp;
+
+        /* Keyframe properties which were used for sampling */
+        public long tickA = Long.MIN_VALUE;
+        public long tickB;
+        public float valueA;
+        public float valueB;
+        public float before;
+        public float after;
+        public Interpolation interp;
+        public Easing easing;
+        public float rx;
+        public float ry;
+        public float lx;
+        public float ly;
+
+        /* Sampled values, and their positions in graph */
+        public int count;
+        public float[] values = new float[SAMPLES + 1];
+        public float[] xs = new float[SAMPLES + 1];
+        public float[] ys = new float[SAMPLES + 1];
+
+        /**
+         * Sample this segment again, if any of given keyframes were 
+         * changed since the last time
+         */
+        public boolean update(Keyframe a, Keyframe b)
+        {
+            if (a.tick == this.tickA && b.tick == this.tickB && a.value == this.valueA && b.value == this.valueB && a.prev.value == this.before && b.next.value == this.after && a.interp == this.interp && a.easing == this.easing && a.rx == this.rx && a.ry == this.ry && b.lx == this.lx && b.ly == this.ly)
+            {
+                return false;
+            }
+
+            this.tickA = a.tick;
+            this.tickB = b.tick;
+            this.valueA = a.value;
+            this.valueB = b.value;
+            this.before = a.prev.value;
+            this.after = b.next.value;
+            this.interp = a.interp;
+            this.easing = a.easing;
+            this.rx = a.rx;
+            this.ry = a.ry;
+            this.lx = b.lx;
+            this.ly = b.ly;
+
+            if (a.interp == Interpolation.LINEAR)
+            {
+                this.count = 1;
+                this.values[0] = a.value;
+                this.values[1] = b.value;
+            }
+            else
+            {
+                this.count = SAMPLES;
+
+                for (int i = 0; i <= SAMPLES; i++)
+                {
+                    this.values[i] = a.interpolate(b, i / (float) SAMPLES);
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Project sampled values into the graph
+         */
+        public void project(GuiGraphElement graph)
+        {
+            int px = graph.toGraphX(this.tickA);
+            int fx = graph.toGraphX(this.tickB);
+
+            for (int i = 0; i <= this.count; i++)
+            {
+                this.xs[i] = px + (fx - px) * (i / (float) this.count);
+                this.ys[i] = graph.toGraphY(this.values[i]);
+            }
+        }
+    }
+}
@@ -86,11 +86,48 @@ public class ApertureConfig
      */
     public boolean camera_first_tick_zero;
 
+    /**
+     * Bake camera profile before the playback
+     */
+    public boolean camera_bake;
+
+    /**
+     * How many samples per tick are baked
+     */
+    public int camera_bake_rate;
+
+    /**
+     * Save camera profiles in binary format instead of JSON
+     */
+    public boolean camera_profile_binary;
+
+    /**
+     * Compress camera profiles which are saved in binary format
+     */
+    public boolean camera_profile_compress;
+
     /**
      * Render camera profile in the world?
      */
     public boolean camera_profile_render;
 
+    /**
+     * How many samples may be taken per frame to build camera profile's
+     * preview
+     */
+    public int camera_profile_render_samples;
+
+    /**
+     * Distance after which camera profile's preview is rendered with less
+     * detail
+     */
+    public int camera_profile_render_lod;
+
+    /**
+     * Maximum distance at which camera profile's preview is rendered
+     */
+    public int camera_profile_render_distance;
+
     /**
      * Aspect ratio for letter box within camera editor
      */
@@ -165,7 +202,14 @@ public class ApertureConfig
         this.camera_simulate_velocity = this.getBoolean("camera_simulate_velocity", camera, false, "Simulate player's velocity during camera playback (see legs in perspective)");
         this.camera_debug_ticks = this.getBoolean("camera_debug_ticks", camera, false, "Write ticks to the log during camera playback");
         this.camera_first_tick_zero = this.getBoolean("camera_first_tick_zero", camera, false, "When camera runner starts, start the actual playback when partial tick is exactly zero");
+        this.camera_bake = this.getBoolean("camera_bake", camera, false, "Bake camera profile into samples before the playback (entity based modifiers are still applied during the playback)");
+        this.camera_bake_rate = this.getInt("camera_bake_rate", camera, 4, 1, 64, "How many samples per tick are baked when camera profile baking is enabled");
+        this.camera_profile_binary = this.getBoolean("camera_profile_binary", camera, false, "Save camera profiles in compact binary format instead of JSON (both formats can be loaded regardless of this option)");
+        this.camera_profile_compress = this.getBoolean("camera_profile_compress", camera, true, "Compress camera profiles which are saved in binary format");
         this.camera_profile_render = this.getBoolean("camera_profile_render", camera, true, "Render camera profile in the world?");
+        this.camera_profile_render_samples = this.getInt("camera_profile_render_samples", camera, 4096, 64, 65536, "How many path samples may be taken per frame when camera profile's preview is built (big camera profiles and long paths are built over several frames, a path segment which was started is finished within the same frame, which may take up to 128 samples more)");
+        this.camera_profile_render_lod = this.getInt("camera_profile_render_lod", camera, 64, 0, 1024, "Distance (in blocks) after which paths of camera profile's preview are rendered with less detail (0 disables it)");
+        this.camera_profile_render_distance = this.getInt("camera_profile_render_distance", camera, 256, 0, 4096, "Maximum distance (in blocks) at which paths, cards and path points of camera profile's preview are rendered (0 means no limit)");
         this.minecrafttp_teleport = this.getBoolean("minecrafttp_teleport", camera, true, "When start the camera playback in multiplayer, teleport you with /minecraft:tp command (For Essentials)");
         this.tp_teleport = this.getBoolean("tp_teleport", camera, true, "When start the camera playback in multiplayer, teleport you with /tp command (For Vanilla or Forge)");
         this.aspect_ratio = this.getString("aspect_ratio", camera, "16:9", "Aspect ratio for camera editor's letter box");
@@ -0,0 +1,250 @@
+package mchorse.aperture.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Chunked payload
+ *
+ * Camera profile payload (see {@link mchorse.aperture.network.common.PacketCameraProfile#encode(mchorse.aperture.camera.CameraProfile)})
+ * which was compressed with deflate and split into chunks, so big camera
+ * profiles don't exceed payload size limit of a single packet, and could
+ * be sent over several ticks.
+ *
+ * Chunks are parts of one deflate stream, so they must be inflated in
+ * order they were sent (see {@link Assembler}). Checksum is CRC32 of
+ * uncompressed payload.
+ */
+public class ChunkedPayload
+{
+    /**
+     * Maximum size of a compressed chunk in bytes
+     */
+    public static final int CHUNK_SIZE = 16384;
+
+    /**
+     * Maximum size of uncompressed payload in bytes which client agrees
+     * to receive
+     */
+    public static final int MAX_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Maximum compression ratio of deflate
+     */
+    public static final int MAX_RATIO = 1032;
+
+    /**
+     * Compressed chunks
+     */
+    public final byte[][] chunks;
+
+    /**
+     * Size of uncompressed payload
+     */
+    public final int size;
+
+    /**
+     * CRC32 of uncompressed payload
+     */
+    public final long checksum;
+
+    /**
+     * Compress given payload and split it into chunks. Payload's reader
+     * index isn't modified.
+     */
+    public static ChunkedPayload compress(ByteBuf payload)
+    {
+        byte[] bytes = new byte[payload.readableBytes()];
+        payload.getBytes(payload.readerIndex(), bytes);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        Deflater deflater = new Deflater();
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int offset = 0;
+
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        while (!deflater.finished())
+        {
+            offset += deflater.deflate(buffer, offset, CHUNK_SIZE - offset);
+
+            if (offset == CHUNK_SIZE || deflater.finished())
+            {
+                byte[] chunk = new byte[offset];
+
+                System.arraycopy(buffer, 0, chunk, 0, offset);
+                chunks.add(chunk);
+                offset = 0;
+            }
+        }
+
+        deflater.end();
+
+        return new ChunkedPayload(chunks.toArray(new byte[chunks.size()][]), bytes.length, crc.getValue());
+    }
+
+    public ChunkedPayload(byte[][] chunks, int size, long checksum)
+    {
+        this.chunks = chunks;
+        this.size = size;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Chunked payload assembler
+     *
+     * Inflates chunks as they arrive, so the whole compressed payload
+     * doesn't have to be kept in memory.
+     */
+    public static class Assembler
+    {
+        /**
+         * Payloads which are being received, mapped by transfer IDs
+         */
+        public static final Map<Integer, Assembler> RECEIVING = new HashMap<Integer, Assembler>();
+
+        public final String filename;
+        public final boolean play;
+
+        private Inflater inflater;
+        private byte[] data;
+        private int offset;
+        private int chunks;
+        private int index;
+
+        /**
+         * Start receiving a payload with given transfer ID. Server sends 
+         * only one payload at a time, so payloads which are still being 
+         * received were abandoned, and get cancelled.
+         */
+        public static void start(int id, Assembler assembler)
+        {
+            cancelAll();
+            RECEIVING.put(id, assembler);
+        }
+
+        /**
+         * Cancel all payloads which are being received (i.e. when client 
+         * disconnects from the server)
+         */
+        public static void cancelAll()
+        {
+            for (Assembler assembler : RECEIVING.values())
+            {
+                assembler.cancel();
+            }
+
+            RECEIVING.clear();
+        }
+
+        /**
+         * Create an assembler for a payload of given uncompressed size 
+         * which is sent in given amount of chunks. Size and amount of 
+         * chunks come from the network, so they're checked before 
+         * allocating anything.
+         */
+        public Assembler(String filename, boolean play, int size, int chunks) throws IOException
+        {
+            if (size <= 0 || size > MAX_SIZE)
+            {
+                throw new IOException("Chunked payload's size " + size + " is out of range (1 to " + MAX_SIZE + " bytes)!");
+            }
+
+            /* Deflate stream of given size can't be shorter than size / MAX_RATIO 
+             * bytes, and can't be longer than a few bytes per stored block */
+            int min = size / MAX_RATIO / CHUNK_SIZE;
+            int max = size / CHUNK_SIZE + 2;
+
+            if (chunks < Math.max(min, 1) || chunks > max)
+            {
+                throw new IOException("Chunked payload of " + size + " bytes can't be sent in " + chunks + " chunks!");
+            }
+
+            this.filename = filename;
+            this.play = play;
+            this.inflater = new Inflater();
+            this.data = new byte[size];
+            this.chunks = chunks;
+        }
+
+        /**
+         * Inflate next chunk
+         */
+        public void add(int index, byte[] chunk) throws IOException
+        {
+            if (index != this.index || index >= this.chunks)
+            {
+                throw new IOException("Expected chunk " + this.index + " out of " + this.chunks + ", but received " + index + "!");
+            }
+
+            this.index++;
+            this.inflater.setInput(chunk);
+
+            try
+            {
+                while (!this.inflater.needsInput() && !this.inflater.finished() && !this.inflater.needsDictionary())
+                {
+                    if (this.offset < this.data.length)
+                    {
+                        this.offset += this.inflater.inflate(this.data, this.offset, this.data.length - this.offset);
+                    }
+                    else if (this.inflater.inflate(new byte[1]) > 0)
+                    {
+                        /* Data is already full, but there is still more to inflate */
+                        throw new IOException("Chunked payload is bigger than " + this.data.length + " bytes!");
+                    }
+                }
+            }
+            catch (DataFormatException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        /**
+         * Finish assembling and verify the payload against given checksum
+         */
+        public byte[] finish(long checksum) throws IOException
+        {
+            boolean finished = this.inflater.finished();
+
+            this.inflater.end();
+
+            if (!finished || this.index != this.chunks || this.offset != this.data.length)
+            {
+                throw new IOException("Chunked payload is incomplete (" + this.offset + " out of " + this.data.length + " bytes)!");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(this.data);
+
+            if (crc.getValue() != checksum)
+            {
+                throw new IOException("Chunked payload's checksum doesn't match!");
+            }
+
+            return this.data;
+        }
+
+        /**
+         * Release the inflater without finishing
+         */
+        public void cancel()
+        {
+            this.inflater.end();
+        }
+    }
+}
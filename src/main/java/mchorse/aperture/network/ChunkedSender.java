@@ -0,0 +1,200 @@
+package mchorse.aperture.network;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import mchorse.aperture.camera.CameraUtils;
+import mchorse.aperture.network.common.PacketCameraProfileChunk;
+import mchorse.aperture.network.common.PacketCameraProfileEnd;
+import mchorse.aperture.network.common.PacketCameraProfileHeader;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.gameevent.TickEvent.ServerTickEvent;
+
+/**
+ * Chunked sender
+ *
+ * Sends chunked camera profile payloads to players. Header is sent
+ * immediately, while chunks are sent a few per tick, so the bandwidth
+ * of big camera profiles is spread over several ticks. Completion
+ * packet with checksum is sent after the last chunk.
+ *
+ * Only one transfer per player is running at a time, a newer camera
+ * profile cancels the transfer of older one. Player is marked as having
+ * the camera profile only after the completion packet was sent, and
+ * packets which depend on the camera profile could be held until then
+ * (see {@link #sendAfterTransfer(IMessage, EntityPlayerMP)}).
+ */
+public class ChunkedSender
+{
+    /**
+     * Payloads which are smaller than this amount of bytes are sent in
+     * a single packet
+     */
+    public static final int THRESHOLD = 32768;
+
+    /**
+     * How many chunks are sent to every player per tick
+     */
+    public static final int CHUNKS_PER_TICK = 4;
+
+    /**
+     * Transfers in progress
+     */
+    private static final List<Transfer> TRANSFERS = new LinkedList<Transfer>();
+
+    /**
+     * Transfer ID counter
+     */
+    private static int nextId;
+
+    /**
+     * Start sending chunked payload to given player. Transfer which is
+     * already running to given player gets cancelled.
+     */
+    public static void send(EntityPlayerMP player, String filename, ChunkedPayload payload, boolean play)
+    {
+        Transfer transfer = new Transfer(++nextId, player, filename, payload);
+
+        cancel(player);
+        Dispatcher.sendTo(new PacketCameraProfileHeader(transfer.id, filename, play, payload.size, payload.chunks.length), player);
+        TRANSFERS.add(transfer);
+    }
+
+    /**
+     * Cancel transfer to given player (when a newer camera profile gets
+     * sent to the player). Packets which were held until the end of the
+     * transfer are dropped as well.
+     */
+    public static void cancel(EntityPlayerMP player)
+    {
+        TRANSFERS.removeIf((transfer) -> transfer.player == player);
+    }
+
+    /**
+     * Whether a transfer to given player is still running
+     */
+    public static boolean isSending(EntityPlayerMP player)
+    {
+        return get(player) != null;
+    }
+
+    /**
+     * Send given message to given player after the transfer to that
+     * player is finished, or right away if nothing is being sent. Used
+     * for packets, such as camera state, which should be received after
+     * the camera profile was loaded.
+     */
+    public static void sendAfterTransfer(IMessage message, EntityPlayerMP player)
+    {
+        Transfer transfer = get(player);
+
+        if (transfer == null)
+        {
+            Dispatcher.sendTo(message, player);
+        }
+        else
+        {
+            transfer.held.add(message);
+        }
+    }
+
+    /**
+     * Get transfer to given player
+     */
+    private static Transfer get(EntityPlayerMP player)
+    {
+        for (Transfer transfer : TRANSFERS)
+        {
+            if (transfer.player == player)
+            {
+                return transfer;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Cancel all transfers (when the server stops)
+     */
+    public static void clear()
+    {
+        TRANSFERS.clear();
+    }
+
+    /**
+     * Cancel transfers to the player who has left, so chunks aren't sent
+     * to a closed connection
+     */
+    @SubscribeEvent
+    public void onPlayerLogOut(PlayerLoggedOutEvent event)
+    {
+        if (event.player instanceof EntityPlayerMP)
+        {
+            cancel((EntityPlayerMP) event.player);
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent event)
+    {
+        if (event.phase == Phase.START || TRANSFERS.isEmpty())
+        {
+            return;
+        }
+
+        Iterator<Transfer> it = TRANSFERS.iterator();
+
+        while (it.hasNext())
+        {
+            Transfer transfer = it.next();
+            ChunkedPayload payload = transfer.payload;
+
+            for (int i = 0; i < CHUNKS_PER_TICK && transfer.index < payload.chunks.length; i++)
+            {
+                Dispatcher.sendTo(new PacketCameraProfileChunk(transfer.id, transfer.index, payload.chunks[transfer.index]), transfer.player);
+                transfer.index++;
+            }
+
+            if (transfer.index == payload.chunks.length)
+            {
+                Dispatcher.sendTo(new PacketCameraProfileEnd(transfer.id, payload.checksum), transfer.player);
+                it.remove();
+
+                CameraUtils.markProfileLoaded(transfer.player, transfer.filename);
+
+                for (IMessage message : transfer.held)
+                {
+                    Dispatcher.sendTo(message, transfer.player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transfer of a chunked payload to a player
+     */
+    private static class Transfer
+    {
+        public final int id;
+        public final EntityPlayerMP player;
+        public final String filename;
+        public final ChunkedPayload payload;
+        public final List<IMessage> held = new ArrayList<IMessage>();
+        public int index;
+
+        public Transfer(int id, EntityPlayerMP player, String filename, ChunkedPayload payload)
+        {
+            this.id = id;
+            this.player = player;
+            this.filename = filename;
+            this.payload = payload;
+        }
+    }
+}
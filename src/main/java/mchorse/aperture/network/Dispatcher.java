@@ -2,12 +2,24 @@ package mchorse.aperture.network;
 
 import mchorse.aperture.Aperture;
 import mchorse.aperture.network.client.ClientHandlerCameraProfile;
+import mchorse.aperture.network.client.ClientHandlerCameraProfileChunk;
+import mchorse.aperture.network.client.ClientHandlerCameraProfileEnd;
+import mchorse.aperture.network.client.ClientHandlerCameraProfileHeader;
 import mchorse.aperture.network.client.ClientHandlerCameraProfileList;
+import mchorse.aperture.network.client.ClientHandlerCameraProfileOffer;
+import mchorse.aperture.network.client.ClientHandlerCameraProfileResend;
 import mchorse.aperture.network.client.ClientHandlerCameraState;
 import mchorse.aperture.network.client.ClientHandlerRenameCameraProfile;
 import mchorse.aperture.network.client.ClientHandlerRemoveCameraProfile;
 import mchorse.aperture.network.common.PacketCameraProfile;
+import mchorse.aperture.network.common.PacketCameraProfileAnswer;
+import mchorse.aperture.network.common.PacketCameraProfileChunk;
+import mchorse.aperture.network.common.PacketCameraProfileDelta;
+import mchorse.aperture.network.common.PacketCameraProfileEnd;
+import mchorse.aperture.network.common.PacketCameraProfileHeader;
 import mchorse.aperture.network.common.PacketCameraProfileList;
+import mchorse.aperture.network.common.PacketCameraProfileOffer;
+import mchorse.aperture.network.common.PacketCameraProfileResend;
 import mchorse.aperture.network.common.PacketCameraReset;
 import mchorse.aperture.network.common.PacketCameraState;
 import mchorse.aperture.network.common.PacketLoadCameraProfile;
@@ -15,6 +27,8 @@ import mchorse.aperture.network.common.PacketRemoveCameraProfile;
 import mchorse.aperture.network.common.PacketRenameCameraProfile;
 import mchorse.aperture.network.common.PacketRequestCameraProfiles;
 import mchorse.aperture.network.server.ServerHandlerCameraProfile;
+import mchorse.aperture.network.server.ServerHandlerCameraProfileAnswer;
+import mchorse.aperture.network.server.ServerHandlerCameraProfileDelta;
 import mchorse.aperture.network.server.ServerHandlerCameraReset;
 import mchorse.aperture.network.server.ServerHandlerLoadCameraProfile;
 import mchorse.aperture.network.server.ServerHandlerRemoveCameraProfile;
@@ -51,6 +65,19 @@ public class Dispatcher
 
             this.register(PacketRemoveCameraProfile.class, ClientHandlerRemoveCameraProfile.class, Side.CLIENT);
             this.register(PacketRemoveCameraProfile.class, ServerHandlerRemoveCameraProfile.class, Side.SERVER);
+
+            /* Chunked camera profile transfer */
+            this.register(PacketCameraProfileHeader.class, ClientHandlerCameraProfileHeader.class, Side.CLIENT);
+            this.register(PacketCameraProfileChunk.class, ClientHandlerCameraProfileChunk.class, Side.CLIENT);
+            this.register(PacketCameraProfileEnd.class, ClientHandlerCameraProfileEnd.class, Side.CLIENT);
+
+            /* Camera profile delta sync */
+            this.register(PacketCameraProfileDelta.class, ServerHandlerCameraProfileDelta.class, Side.SERVER);
+            this.register(PacketCameraProfileResend.class, ClientHandlerCameraProfileResend.class, Side.CLIENT);
+
+            /* Camera profile offers (client profile cache) */
+            this.register(PacketCameraProfileOffer.class, ClientHandlerCameraProfileOffer.class, Side.CLIENT);
+            this.register(PacketCameraProfileAnswer.class, ServerHandlerCameraProfileAnswer.class, Side.SERVER);
         }
     };
 
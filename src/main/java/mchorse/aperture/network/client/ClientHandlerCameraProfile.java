@@ -3,7 +3,9 @@ package mchorse.aperture.network.client;
 import mchorse.aperture.ClientProxy;
 import mchorse.aperture.camera.CameraProfile;
 import mchorse.aperture.camera.destination.ServerDestination;
+import mchorse.aperture.client.ProfileCache;
 import mchorse.aperture.commands.CommandCamera;
+import mchorse.aperture.network.ChunkedPayload.Assembler;
 import mchorse.aperture.network.common.PacketCameraProfile;
 import mchorse.aperture.utils.L10n;
 import mchorse.mclib.network.ClientMessageHandler;
@@ -26,21 +28,33 @@ public class ClientHandlerCameraProfile extends ClientMessageHandler<PacketCamer
     @SideOnly(Side.CLIENT)
     public void run(EntityPlayerSP player, PacketCameraProfile message)
     {
-        CameraProfile profile = message.profile;
+        /* Server doesn't send chunks of older camera profile anymore */
+        Assembler.cancelAll();
+        load(player, message.filename, message.profile, message.play);
+    }
 
-        profile.setDestination(new ServerDestination(message.filename));
+    /**
+     * Load camera profile received from the server (either in a single 
+     * packet or assembled from chunks)
+     */
+    @SideOnly(Side.CLIENT)
+    public static void load(EntityPlayerSP player, String filename, CameraProfile profile, boolean play)
+    {
+        profile.setDestination(new ServerDestination(filename));
         profile.dirty = false;
+        profile.markSynced();
+        ProfileCache.store(profile, CameraProfile.hash(profile.getSynced()));
 
         ClientProxy.control.addProfile(profile);
 
-        if (message.play)
+        if (play)
         {
             ClientProxy.runner.start(ClientProxy.control.currentProfile);
         }
 
         if (ClientProxy.runner.getGameMode(player) != GameType.ADVENTURE)
         {
-            L10n.success(player, "profile.load", message.filename);
+            L10n.success(player, "profile.load", filename);
         }
     }
 }
\ No newline at end of file
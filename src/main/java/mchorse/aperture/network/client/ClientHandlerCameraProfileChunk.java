@@ -0,0 +1,45 @@
+package mchorse.aperture.network.client;
+
+import java.io.IOException;
+
+import mchorse.aperture.network.ChunkedPayload.Assembler;
+import mchorse.aperture.network.common.PacketCameraProfileChunk;
+import mchorse.aperture.utils.L10n;
+import mchorse.mclib.network.ClientMessageHandler;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client handler camera profile chunk
+ *
+ * Inflates received chunk into the camera profile which is being 
+ * assembled. Transfer is aborted if the chunk is broken.
+ */
+public class ClientHandlerCameraProfileChunk extends ClientMessageHandler<PacketCameraProfileChunk>
+{
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void run(EntityPlayerSP player, PacketCameraProfileChunk message)
+    {
+        Assembler assembler = Assembler.RECEIVING.get(message.id);
+
+        if (assembler == null)
+        {
+            return;
+        }
+
+        try
+        {
+            assembler.add(message.index, message.data);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+
+            assembler.cancel();
+            Assembler.RECEIVING.remove(message.id);
+            L10n.error(player, "profile.cant_load", assembler.filename);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package mchorse.aperture.network.client;
+
+import io.netty.buffer.Unpooled;
+import mchorse.aperture.camera.CameraProfile;
+import mchorse.aperture.network.ChunkedPayload.Assembler;
+import mchorse.aperture.network.common.PacketCameraProfileEnd;
+import mchorse.aperture.utils.L10n;
+import mchorse.mclib.network.ClientMessageHandler;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client handler camera profile end
+ *
+ * Verifies the checksum of assembled camera profile, and loads it the 
+ * same way as a camera profile which was sent in a single packet.
+ */
+public class ClientHandlerCameraProfileEnd extends ClientMessageHandler<PacketCameraProfileEnd>
+{
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void run(EntityPlayerSP player, PacketCameraProfileEnd message)
+    {
+        Assembler assembler = Assembler.RECEIVING.remove(message.id);
+
+        if (assembler == null)
+        {
+            return;
+        }
+
+        CameraProfile profile = new CameraProfile(null);
+
+        try
+        {
+            profile.fromByteBuf(Unpooled.wrappedBuffer(assembler.finish(message.checksum)));
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            L10n.error(player, "profile.cant_load", assembler.filename);
+
+            return;
+        }
+
+        ClientHandlerCameraProfile.load(player, assembler.filename, profile, assembler.play);
+    }
+}
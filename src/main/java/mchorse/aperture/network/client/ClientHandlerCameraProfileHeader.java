@@ -0,0 +1,43 @@
+package mchorse.aperture.network.client;
+
+import java.io.IOException;
+
+import mchorse.aperture.network.ChunkedPayload.Assembler;
+import mchorse.aperture.network.common.PacketCameraProfileHeader;
+import mchorse.aperture.utils.L10n;
+import mchorse.mclib.network.ClientMessageHandler;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client handler camera profile header
+ *
+ * Starts assembling a camera profile which is sent in chunks. Headers 
+ * with impossible size or amount of chunks are rejected.
+ */
+public class ClientHandlerCameraProfileHeader extends ClientMessageHandler<PacketCameraProfileHeader>
+{
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void run(EntityPlayerSP player, PacketCameraProfileHeader message)
+    {
+        Assembler assembler;
+
+        try
+        {
+            assembler = new Assembler(message.filename, message.play, message.size, message.chunks);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+
+            Assembler.cancelAll();
+            L10n.error(player, "profile.cant_load", message.filename);
+
+            return;
+        }
+
+        Assembler.start(message.id, assembler);
+    }
+}
@@ -0,0 +1,37 @@
+package mchorse.aperture.network.client;
+
+import mchorse.aperture.client.ProfileCache;
+import mchorse.aperture.network.ChunkedPayload.Assembler;
+import mchorse.aperture.network.Dispatcher;
+import mchorse.aperture.network.common.PacketCameraProfileAnswer;
+import mchorse.aperture.network.common.PacketCameraProfileOffer;
+import mchorse.mclib.network.ClientMessageHandler;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client handler camera profile offer
+ *
+ * Loads offered camera profile from the client profile cache, if it's 
+ * there, otherwise asks the server to send it.
+ */
+public class ClientHandlerCameraProfileOffer extends ClientMessageHandler<PacketCameraProfileOffer>
+{
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void run(EntityPlayerSP player, PacketCameraProfileOffer message)
+    {
+        /* Server doesn't send chunks of older camera profile anymore */
+        Assembler.cancelAll();
+        ProfileCache.load(message.hash, (profile, error) ->
+        {
+            if (profile != null)
+            {
+                ClientHandlerCameraProfile.load(player, message.filename, profile, message.play);
+            }
+
+            Dispatcher.sendToServer(new PacketCameraProfileAnswer(message, profile != null));
+        });
+    }
+}
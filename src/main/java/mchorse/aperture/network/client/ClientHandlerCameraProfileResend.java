@@ -0,0 +1,31 @@
+package mchorse.aperture.network.client;
+
+import mchorse.aperture.ClientProxy;
+import mchorse.aperture.camera.CameraProfile;
+import mchorse.aperture.camera.destination.ServerDestination;
+import mchorse.aperture.network.common.PacketCameraProfileResend;
+import mchorse.mclib.network.ClientMessageHandler;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Client handler camera profile resend
+ *
+ * Server couldn't apply the delta of camera profile, so send it whole.
+ */
+public class ClientHandlerCameraProfileResend extends ClientMessageHandler<PacketCameraProfileResend>
+{
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void run(EntityPlayerSP player, PacketCameraProfileResend message)
+    {
+        ServerDestination destination = new ServerDestination(message.filename);
+        CameraProfile profile = ClientProxy.control.getProfile(destination);
+
+        if (profile != null)
+        {
+            destination.saveFull(profile);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package mchorse.aperture.network.common;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import mchorse.aperture.camera.CameraProfile;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
@@ -11,6 +12,27 @@ public class PacketCameraProfile implements IMessage
     public String filename;
     public CameraProfile profile;
 
+    /**
+     * Already encoded camera profile (see {@link #encode(CameraProfile)}), 
+     * which is written instead of the profile. It may be shared between 
+     * many packets, since it's never modified or consumed.
+     */
+    public ByteBuf payload;
+
+    /**
+     * Encode given camera profile once into a read-only buffer, which 
+     * can be sent to many players without serializing the profile for 
+     * every one of them
+     */
+    public static ByteBuf encode(CameraProfile profile)
+    {
+        ByteBuf buffer = Unpooled.buffer();
+
+        profile.toByteBuf(buffer);
+
+        return Unpooled.unmodifiableBuffer(buffer);
+    }
+
     public PacketCameraProfile()
     {}
 
@@ -26,6 +48,13 @@ public class PacketCameraProfile implements IMessage
         this.profile = profile;
     }
 
+    public PacketCameraProfile(String filename, ByteBuf payload, boolean play)
+    {
+        this.play = play;
+        this.filename = filename;
+        this.payload = payload;
+    }
+
     @Override
     public void fromBytes(ByteBuf buf)
     {
@@ -40,6 +69,15 @@ public class PacketCameraProfile implements IMessage
     {
         buf.writeBoolean(this.play);
         ByteBufUtils.writeUTF8String(buf, this.filename);
-        this.profile.toByteBuf(buf);
+
+        if (this.payload != null)
+        {
+            /* Doesn't move payload's reader index, so it can be reused */
+            buf.writeBytes(this.payload, this.payload.readerIndex(), this.payload.readableBytes());
+        }
+        else
+        {
+            this.profile.toByteBuf(buf);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Client's answer to {@link PacketCameraProfileOffer}, whether it loaded 
+ * the camera profile from its cache, or the server needs to send it
+ */
+public class PacketCameraProfileAnswer implements IMessage
+{
+    public String filename = "";
+    public long hash;
+    public boolean play;
+    public boolean have;
+
+    public PacketCameraProfileAnswer()
+    {}
+
+    public PacketCameraProfileAnswer(PacketCameraProfileOffer offer, boolean have)
+    {
+        this.filename = offer.filename;
+        this.hash = offer.hash;
+        this.play = offer.play;
+        this.have = have;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.filename = ByteBufUtils.readUTF8String(buf);
+        this.hash = buf.readLong();
+        this.play = buf.readBoolean();
+        this.have = buf.readBoolean();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        ByteBufUtils.writeUTF8String(buf, this.filename);
+        buf.writeLong(this.hash);
+        buf.writeBoolean(this.play);
+        buf.writeBoolean(this.have);
+    }
+}
@@ -0,0 +1,42 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Compressed chunk of chunked camera profile transfer
+ */
+public class PacketCameraProfileChunk implements IMessage
+{
+    public int id;
+    public int index;
+    public byte[] data;
+
+    public PacketCameraProfileChunk()
+    {}
+
+    public PacketCameraProfileChunk(int id, int index, byte[] data)
+    {
+        this.id = id;
+        this.index = index;
+        this.data = data;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.id = buf.readInt();
+        this.index = buf.readInt();
+        this.data = new byte[buf.readInt()];
+        buf.readBytes(this.data);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        buf.writeInt(this.id);
+        buf.writeInt(this.index);
+        buf.writeInt(this.data.length);
+        buf.writeBytes(this.data);
+    }
+}
@@ -0,0 +1,150 @@
+package mchorse.aperture.network.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import mchorse.aperture.camera.CameraProfile;
+import mchorse.aperture.camera.FixtureRegistry;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Camera profile delta packet
+ *
+ * Contains only the fixtures that were changed since the camera profile
+ * was last synchronized with the server. Every fixture of the new
+ * profile is either a reference to a fixture in the base profile (by
+ * its index, so unchanged and moved fixtures aren't sent), or a full
+ * fixture (added or modified ones). Removed fixtures simply aren't
+ * referenced.
+ *
+ * Base hash is the hash of the profile which server is expected to have
+ * (see {@link CameraProfile#hash(long[])}). If it doesn't match, the
+ * server asks for a full camera profile.
+ */
+public class PacketCameraProfileDelta implements IMessage
+{
+    public String filename;
+    public long base;
+
+    /**
+     * Index of base fixture, or -1 if fixture is in {@link #fixtures}
+     */
+    public int[] indices;
+
+    /**
+     * Full fixtures (null where the base fixture is referenced)
+     */
+    public List<AbstractFixture> fixtures;
+
+    /**
+     * Amount of fixtures which are referenced from the base profile
+     */
+    public int references;
+
+    public PacketCameraProfileDelta()
+    {}
+
+    /**
+     * Compute a delta between given base fixture hashes and current
+     * fixtures of given camera profile
+     */
+    public PacketCameraProfileDelta(String filename, CameraProfile profile, long[] base, long[] current)
+    {
+        Map<Long, Integer> lookup = new HashMap<Long, Integer>();
+
+        for (int i = base.length - 1; i >= 0; i--)
+        {
+            lookup.put(base[i], i);
+        }
+
+        this.filename = filename;
+        this.base = CameraProfile.hash(base);
+        this.indices = new int[current.length];
+        this.fixtures = new ArrayList<AbstractFixture>(current.length);
+
+        for (int i = 0; i < current.length; i++)
+        {
+            Integer index = lookup.get(current[i]);
+
+            this.indices[i] = index == null ? -1 : index;
+            this.fixtures.add(index == null ? profile.get(i) : null);
+
+            if (index != null)
+            {
+                this.references++;
+            }
+        }
+    }
+
+    /**
+     * Apply this delta on top of given base camera profile. Returns
+     * {@code null} if base profile isn't the one this delta was made for.
+     * Base fixtures are shared with the new profile, not copied.
+     */
+    public CameraProfile apply(CameraProfile base, long[] hashes)
+    {
+        if (CameraProfile.hash(hashes) != this.base)
+        {
+            return null;
+        }
+
+        CameraProfile profile = new CameraProfile(null);
+
+        for (int i = 0; i < this.indices.length; i++)
+        {
+            int index = this.indices[i];
+            AbstractFixture fixture = index < 0 ? this.fixtures.get(i) : base.get(index);
+
+            if (fixture == null)
+            {
+                return null;
+            }
+
+            profile.getAll().add(fixture);
+        }
+
+        profile.invalidateOffsets();
+
+        return profile;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.filename = ByteBufUtils.readUTF8String(buf);
+        this.base = buf.readLong();
+        this.indices = new int[buf.readInt()];
+        this.fixtures = new ArrayList<AbstractFixture>(this.indices.length);
+
+        for (int i = 0; i < this.indices.length; i++)
+        {
+            int index = buf.readInt();
+
+            this.indices[i] = index;
+            this.fixtures.add(index < 0 ? FixtureRegistry.fromByteBuf(buf) : null);
+        }
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        ByteBufUtils.writeUTF8String(buf, this.filename);
+        buf.writeLong(this.base);
+        buf.writeInt(this.indices.length);
+
+        for (int i = 0; i < this.indices.length; i++)
+        {
+            buf.writeInt(this.indices[i]);
+
+            if (this.indices[i] < 0)
+            {
+                FixtureRegistry.toByteBuf(this.fixtures.get(i), buf);
+            }
+        }
+    }
+}
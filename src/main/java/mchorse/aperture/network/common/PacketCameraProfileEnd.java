@@ -0,0 +1,37 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Completion of chunked camera profile transfer, contains CRC32 checksum
+ * of the uncompressed payload
+ */
+public class PacketCameraProfileEnd implements IMessage
+{
+    public int id;
+    public long checksum;
+
+    public PacketCameraProfileEnd()
+    {}
+
+    public PacketCameraProfileEnd(int id, long checksum)
+    {
+        this.id = id;
+        this.checksum = checksum;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.id = buf.readInt();
+        this.checksum = buf.readLong();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        buf.writeInt(this.id);
+        buf.writeLong(this.checksum);
+    }
+}
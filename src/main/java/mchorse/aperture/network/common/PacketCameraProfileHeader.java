@@ -0,0 +1,50 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Header of chunked camera profile transfer, which is followed by
+ * {@link PacketCameraProfileChunk}s and {@link PacketCameraProfileEnd}
+ */
+public class PacketCameraProfileHeader implements IMessage
+{
+    public int id;
+    public String filename;
+    public boolean play;
+    public int size;
+    public int chunks;
+
+    public PacketCameraProfileHeader()
+    {}
+
+    public PacketCameraProfileHeader(int id, String filename, boolean play, int size, int chunks)
+    {
+        this.id = id;
+        this.filename = filename;
+        this.play = play;
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.id = buf.readInt();
+        this.filename = ByteBufUtils.readUTF8String(buf);
+        this.play = buf.readBoolean();
+        this.size = buf.readInt();
+        this.chunks = buf.readInt();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        buf.writeInt(this.id);
+        ByteBufUtils.writeUTF8String(buf, this.filename);
+        buf.writeBoolean(this.play);
+        buf.writeInt(this.size);
+        buf.writeInt(this.chunks);
+    }
+}
@@ -0,0 +1,42 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Server offers a camera profile by its content hash. Client answers 
+ * with {@link PacketCameraProfileAnswer} whether it already has it.
+ */
+public class PacketCameraProfileOffer implements IMessage
+{
+    public String filename = "";
+    public long hash;
+    public boolean play;
+
+    public PacketCameraProfileOffer()
+    {}
+
+    public PacketCameraProfileOffer(String filename, long hash, boolean play)
+    {
+        this.filename = filename;
+        this.hash = hash;
+        this.play = play;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.filename = ByteBufUtils.readUTF8String(buf);
+        this.hash = buf.readLong();
+        this.play = buf.readBoolean();
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        ByteBufUtils.writeUTF8String(buf, this.filename);
+        buf.writeLong(this.hash);
+        buf.writeBoolean(this.play);
+    }
+}
@@ -0,0 +1,34 @@
+package mchorse.aperture.network.common;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**
+ * Server asks the client to send the full camera profile, because the
+ * delta couldn't be applied (see {@link PacketCameraProfileDelta})
+ */
+public class PacketCameraProfileResend implements IMessage
+{
+    public String filename = "";
+
+    public PacketCameraProfileResend()
+    {}
+
+    public PacketCameraProfileResend(String filename)
+    {
+        this.filename = filename;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf)
+    {
+        this.filename = ByteBufUtils.readUTF8String(buf);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf)
+    {
+        ByteBufUtils.writeUTF8String(buf, this.filename);
+    }
+}
@@ -13,21 +13,26 @@ public class ServerHandlerCameraProfile extends ServerMessageHandler<PacketCamer
     @Override
     public void run(EntityPlayerMP player, PacketCameraProfile message)
     {
-        if (!message.filename.matches("^[\\w\\d_ -]+$"))
+        if (!CameraUtils.isValidFilename(message.filename))
         {
             L10n.error(player, "profile.wrong_filename", message.filename);
 
             return;
         }
 
-        if (CameraUtils.saveCameraProfile(message.filename, CameraUtils.toJSON(message.profile), player))
-        {
-            ICamera cap = Camera.get(player);
+        CameraUtils.saveCameraProfile(message.filename, message.profile, player, () -> saved(player, message.filename));
+    }
 
-            cap.setCurrentProfile(message.filename);
-            cap.setCurrentProfileTimestamp(System.currentTimeMillis());
+    /**
+     * Inform given player that camera profile was saved
+     */
+    public static void saved(EntityPlayerMP player, String filename)
+    {
+        ICamera cap = Camera.get(player);
 
-            L10n.success(player, "profile.save", message.filename);
-        }
+        cap.setCurrentProfile(filename);
+        cap.setCurrentProfileTimestamp(System.currentTimeMillis());
+
+        L10n.success(player, "profile.save", filename);
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package mchorse.aperture.network.server;
+
+import mchorse.aperture.camera.CameraUtils;
+import mchorse.aperture.network.common.PacketCameraProfileAnswer;
+import mchorse.mclib.network.ServerMessageHandler;
+import net.minecraft.entity.player.EntityPlayerMP;
+
+/**
+ * Server handler camera profile answer
+ *
+ * Sends the camera profile which the client doesn't have, or marks it 
+ * as loaded if the client has it cached.
+ */
+public class ServerHandlerCameraProfileAnswer extends ServerMessageHandler<PacketCameraProfileAnswer>
+{
+    @Override
+    public void run(EntityPlayerMP player, PacketCameraProfileAnswer message)
+    {
+        if (!CameraUtils.isValidFilename(message.filename))
+        {
+            return;
+        }
+
+        if (message.have)
+        {
+            CameraUtils.markProfileLoaded(player, message.filename);
+        }
+        else
+        {
+            CameraUtils.sendProfilePayload(message.filename, player, message.play);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mchorse.aperture.network.server;
+
+import mchorse.aperture.camera.CameraUtils;
+import mchorse.aperture.network.common.PacketCameraProfileDelta;
+import mchorse.aperture.utils.L10n;
+import mchorse.mclib.network.ServerMessageHandler;
+import net.minecraft.entity.player.EntityPlayerMP;
+
+/**
+ * Server handler camera profile delta
+ *
+ * Applies changed fixtures on top of server's copy of the camera profile
+ * and saves it. Falls back to asking for the full camera profile.
+ */
+public class ServerHandlerCameraProfileDelta extends ServerMessageHandler<PacketCameraProfileDelta>
+{
+    @Override
+    public void run(EntityPlayerMP player, PacketCameraProfileDelta message)
+    {
+        if (!CameraUtils.isValidFilename(message.filename))
+        {
+            L10n.error(player, "profile.wrong_filename", message.filename);
+
+            return;
+        }
+
+        CameraUtils.saveProfileDelta(message, player, () -> ServerHandlerCameraProfile.saved(player, message.filename));
+    }
+}
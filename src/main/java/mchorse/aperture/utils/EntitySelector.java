@@ -2,6 +2,7 @@ package mchorse.aperture.utils;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +54,41 @@ public class EntitySelector
     private static final Pattern KEY_VALUE_LIST_PATTERN = Pattern.compile("\\G([\\w:]+)=([-!]?[\\w\\.-]*)(?:$|,)"); // FORGE: allow ':' in arguments and '.' in value of entity selectors
     private static final Set<String> WORLD_BINDING_ARGS = Sets.newHashSet(new String[] {"x", "y", "z", "dx", "dy", "dz", "rm", "r"});
 
+    /** Maximum amount of compiled tokens kept in the cache */
+    private static final int MAX_CACHED_TOKENS = 64;
+
+    /** Compiled tokens by selector string (least recently used ones get evicted) */
+    private static final Map<String, Token> TOKENS = new LinkedHashMap<String, Token>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Token> eldest)
+        {
+            return this.size() > MAX_CACHED_TOKENS;
+        }
+    };
+
+    /**
+     * Parse given selector into a compiled token, so it could be matched 
+     * several times without parsing it again. Compiled tokens are cached 
+     * by selector string. Returns null if given string isn't an entity 
+     * selector
+     */
+    @Nullable
+    public static Token parseToken(String token)
+    {
+        if (TOKENS.containsKey(token))
+        {
+            return TOKENS.get(token);
+        }
+
+        Matcher matcher = TOKEN_PATTERN.matcher(token);
+        Token compiled = matcher.matches() ? new Token(matcher.group(1), getArgumentMap(matcher.group(2))) : null;
+
+        TOKENS.put(token, compiled);
+
+        return compiled;
+    }
+
     @Nullable
     public static <T extends Entity> T matchOneEntity(ICommandSender sender, String token, Class<? extends T> targetClass)
     {
@@ -60,47 +96,46 @@ public class EntitySelector
         return (T) (list.size() >= 1 ? (Entity) list.get(0) : null);
     }
 
+    @Nullable
+    public static <T extends Entity> T matchOneEntity(ICommandSender sender, Token token, Class<? extends T> targetClass)
+    {
+        List<T> list = matchEntities(sender, token, targetClass);
+        return (T) (list.size() >= 1 ? (Entity) list.get(0) : null);
+    }
+
     public static <T extends Entity> List<T> matchEntities(ICommandSender sender, String token, Class<? extends T> targetClass)
     {
-        Matcher matcher = TOKEN_PATTERN.matcher(token);
+        Token parsed = parseToken(token);
+
+        return parsed == null ? Collections.<T>emptyList() : matchEntities(sender, parsed, targetClass);
+    }
+
+    public static <T extends Entity> List<T> matchEntities(ICommandSender sender, Token token, Class<? extends T> targetClass)
+    {
         World world = sender.getEntityWorld();
+        Map<String, String> map = token.arguments;
 
-        if (matcher.matches())
+        if (!isEntityTypeValid(sender, map))
         {
-            Map<String, String> map = getArgumentMap(matcher.group(2));
+            return Collections.<T>emptyList();
+        }
+        else
+        {
+            String s = token.type;
+            BlockPos blockpos = getBlockPosFromArguments(map, sender.getPosition());
+            Vec3d vec3d = getPosFromArguments(map, sender.getPositionVector());
+            List<T> list1 = Lists.<T>newArrayList();
 
-            if (!isEntityTypeValid(sender, map))
+            if (world != null)
             {
-                return Collections.<T>emptyList();
+                List<Predicate<Entity>> list2 = Lists.<Predicate<Entity>>newArrayList();
+                list2.add(token.predicate);
+                list2.addAll(getRadiusPredicates(map, vec3d));
+                list2.addAll(net.minecraftforge.event.ForgeEventFactory.gatherEntitySelectors(map, s, sender, vec3d));
+                list1.addAll(filterResults(map, targetClass, list2, s, world, blockpos));
             }
-            else
-            {
-                String s = matcher.group(1);
-                BlockPos blockpos = getBlockPosFromArguments(map, sender.getPosition());
-                Vec3d vec3d = getPosFromArguments(map, sender.getPositionVector());
-                List<T> list1 = Lists.<T>newArrayList();
-
-                if (world != null)
-                {
-                    List<Predicate<Entity>> list2 = Lists.<Predicate<Entity>>newArrayList();
-                    list2.addAll(getTypePredicates(map, s));
-                    list2.addAll(getXpLevelPredicates(map));
-                    list2.addAll(getGamemodePredicates(map));
-                    list2.addAll(getTeamPredicates(map));
-                    list2.addAll(getNamePredicates(map));
-                    list2.addAll(getTagPredicates(map));
-                    list2.addAll(getRadiusPredicates(map, vec3d));
-                    list2.addAll(getRotationsPredicates(map));
-                    list2.addAll(net.minecraftforge.event.ForgeEventFactory.gatherEntitySelectors(map, s, sender, vec3d));
-                    list1.addAll(filterResults(map, targetClass, list2, s, world, blockpos));
-                }
 
-                return getEntitiesFromPredicates(list1, map, sender, targetClass, s, vec3d);
-            }
-        }
-        else
-        {
-            return Collections.<T>emptyList();
+            return getEntitiesFromPredicates(list1, map, sender, targetClass, s, vec3d);
         }
     }
 
@@ -658,4 +693,48 @@ public class EntitySelector
             return map;
         }
     }
+
+    /**
+     * Compiled entity selector token
+     * 
+     * Contains parsed arguments and predicates which don't depend on 
+     * sender's position, so they don't need to be created every time 
+     * the token gets matched. Radius and volume arguments are resolved 
+     * upon matching, and they're used to look up entities only in the 
+     * chunks within the area (see {@link EntitySelector#filterResults}).
+     */
+    public static class Token
+    {
+        /**
+         * Selector's type (p, a, r or e) 
+         */
+        public final String type;
+
+        /**
+         * Selector's arguments 
+         */
+        public final Map<String, String> arguments;
+
+        /**
+         * Combined position independent predicates
+         */
+        public final Predicate<Entity> predicate;
+
+        public Token(String type, Map<String, String> arguments)
+        {
+            List<Predicate<Entity>> list = Lists.<Predicate<Entity>>newArrayList();
+
+            list.addAll(getTypePredicates(arguments, type));
+            list.addAll(getXpLevelPredicates(arguments));
+            list.addAll(getGamemodePredicates(arguments));
+            list.addAll(getTeamPredicates(arguments));
+            list.addAll(getNamePredicates(arguments));
+            list.addAll(getTagPredicates(arguments));
+            list.addAll(getRotationsPredicates(arguments));
+
+            this.type = type;
+            this.arguments = arguments;
+            this.predicate = Predicates.and(list);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package mchorse.aperture.camera;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import mchorse.aperture.camera.data.Position;
+import mchorse.aperture.camera.fixtures.AbstractFixture;
+import mchorse.aperture.camera.fixtures.IdleFixture;
+import mchorse.aperture.camera.fixtures.KeyframeFixture;
+import mchorse.aperture.camera.fixtures.KeyframeFixture.KeyframeChannel;
+import mchorse.aperture.camera.fixtures.PathFixture;
+import mchorse.aperture.camera.fixtures.PathFixture.DurablePosition;
+import mchorse.aperture.camera.modifiers.ComponentModifier;
+import mchorse.aperture.camera.modifiers.DragModifier;
+import mchorse.aperture.camera.modifiers.MathModifier;
+import mchorse.aperture.camera.modifiers.ShakeModifier;
+
+/**
+ * Allocation regression test
+ *
+ * Applies camera profile on every frame, just like camera runner does
+ * during playback (both live and baked), and checks that the render 
+ * path doesn't allocate (measured with per-thread allocation counter of 
+ * HotSpot). Camera runner itself isn't covered, since it needs a running
+ * Minecraft client.
+ */
+public class TestProfileAllocation
+{
+    /**
+     * Amount of frames to warm up (so JIT would kick in) and to measure
+     */
+    public static final int FRAMES = 100000;
+
+    /**
+     * Allowed amount of bytes allocated per frame. Some slack is left
+     * for allocations done by the JVM itself (i.e. deoptimization)
+     */
+    public static final double BYTES_PER_FRAME = 1;
+
+    public CameraProfile profile = new CameraProfile(null);
+    public Position position = new Position(0, 0, 0, 0, 0);
+
+    public TestProfileAllocation()
+    {
+        IdleFixture idle = new IdleFixture(40);
+        KeyframeFixture keyframe = new KeyframeFixture(100);
+        PathFixture path = new PathFixture();
+
+        idle.position.point.set(0, 4, 0);
+
+        for (KeyframeChannel channel : keyframe.channels)
+        {
+            channel.insert(0, 0);
+            channel.insert(50, 10);
+            channel.insert(100, -5);
+        }
+
+        path.setDuration(100);
+        path.useSpeed = true;
+        path.speed.insert(0, 1);
+        path.speed.insert(100, 3);
+
+        for (int i = 0; i < 10; i++)
+        {
+            path.addPoint(new DurablePosition(i * 2, i % 3, -i, i * 10, 0));
+        }
+
+        this.addModifiers(idle);
+        this.addModifiers(keyframe);
+        this.addModifiers(path);
+
+        /* Not going through add(), because marking profile dirty posts
+         * an event on Forge's event bus */
+        this.profile.getAll().add(idle);
+        this.profile.getAll().add(keyframe);
+        this.profile.getAll().add(path);
+    }
+
+    private void addModifiers(AbstractFixture fixture)
+    {
+        ComponentModifier[] modifiers = new ComponentModifier[] {new ShakeModifier(5, 0.5F), new DragModifier(), new MathModifier("value + sin(t / 10 + pt) * 2")};
+
+        for (ComponentModifier modifier : modifiers)
+        {
+            modifier.active = 0b1111111;
+            fixture.getModifiers().add(modifier);
+        }
+    }
+
+    @Test
+    public void testApplyProfile()
+    {
+        this.measure(null);
+    }
+
+    /**
+     * Baked playback (see {@link BakedProfile}) interpolates samples and
+     * evaluates live modifiers on top of them
+     */
+    @Test
+    public void testApplyBakedProfile()
+    {
+        this.measure(this.profile.bake(4, this.position));
+    }
+
+    /**
+     * Measure bytes allocated per frame while playing the camera profile
+     * (baked, if given baked profile isn't null)
+     */
+    private void measure(BakedProfile baked)
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        this.play(baked, FRAMES);
+
+        long before = threads.getThreadAllocatedBytes(id);
+        this.play(baked, FRAMES);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        double perFrame = allocated / (double) FRAMES;
+
+        assertTrue("Camera profile allocates " + perFrame + " bytes per frame", perFrame < BYTES_PER_FRAME);
+    }
+
+    /**
+     * Apply camera profile given amount of frames, assuming 3 frames
+     * per tick
+     */
+    private void play(BakedProfile baked, int frames)
+    {
+        long duration = this.profile.getDuration();
+
+        for (int frame = 0; frame < frames; frame++)
+        {
+            long tick = (frame / 3) % duration;
+            float partial = (frame % 3) / 3F;
+
+            if (baked != null)
+            {
+                baked.applyProfile(tick, partial, this.position);
+            }
+            else
+            {
+                this.profile.applyProfile(tick, partial, this.position);
+            }
+        }
+    }
+}